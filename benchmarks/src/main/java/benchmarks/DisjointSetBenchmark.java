@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import structures.DisjointSet;
+import structures.IntDisjointSet;
+
+/**
+ * Measures unioning random pairs of members until every member is in one set, as Kruskal's
+ * algorithm does, with the map-based and the array-based disjoint sets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DisjointSetBenchmark {
+
+  @Param({"1000", "10000"})
+  public int members;
+
+  private List<Integer> memberList;
+  private int[] firsts;
+  private int[] seconds;
+
+  @Setup
+  public void setUp() {
+    Random rand = new Random(0);
+    memberList = new ArrayList<>(members);
+    firsts = new int[members * 4];
+    seconds = new int[members * 4];
+    for (int i = 0; i < members; i++) {
+      memberList.add(i);
+    }
+    for (int i = 0; i < firsts.length; i++) {
+      firsts[i] = rand.nextInt(members);
+      seconds[i] = rand.nextInt(members);
+    }
+  }
+
+  @Benchmark
+  public int mapDisjointSet() {
+    DisjointSet<Integer> set = new DisjointSet<>(memberList);
+    int unions = 0;
+    for (int i = 0; i < firsts.length; i++) {
+      if (!set.find(firsts[i]).equals(set.find(seconds[i]))) {
+        set.union(firsts[i], seconds[i]);
+        unions++;
+      }
+    }
+    return unions;
+  }
+
+  @Benchmark
+  public int intDisjointSet() {
+    IntDisjointSet set = new IntDisjointSet(members);
+    int unions = 0;
+    for (int i = 0; i < firsts.length; i++) {
+      if (set.union(firsts[i], seconds[i])) {
+        unions++;
+      }
+    }
+    return unions;
+  }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Graph;
+
+/**
+ * Measures generating mazes: the minimum spanning tree on its own, and a whole instant build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GenerationBenchmark {
+
+  @Param({"100x160", "1000x1000"})
+  public String size;
+
+  @Param({"0.1", "0.5", "0.9"})
+  public double bias;
+
+  private Graph graph;
+
+  @Setup
+  public void setUp() {
+    graph = builder().buildIncrementally();
+  }
+
+  private Graph.RectMazeBuilder builder() {
+    return Graph.rectMazeBuilder()
+        .height(MazeSizes.height(size)).width(MazeSizes.width(size)).bias(bias);
+  }
+
+  @Benchmark
+  public int[] createMinimumSpanningTree() {
+    return graph.createMinimumSpanningTree();
+  }
+
+  @Benchmark
+  public Graph buildInstant() {
+    return builder().buildInstant();
+  }
+}
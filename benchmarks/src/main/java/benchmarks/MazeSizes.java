@@ -0,0 +1,18 @@
+package benchmarks;
+
+/**
+ * Parses maze sizes given to benchmarks as parameters in the form "HEIGHTxWIDTH".
+ */
+final class MazeSizes {
+
+  private MazeSizes() {
+  }
+
+  static int height(String size) {
+    return Integer.parseInt(size.substring(0, size.indexOf('x')));
+  }
+
+  static int width(String size) {
+    return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+  }
+}
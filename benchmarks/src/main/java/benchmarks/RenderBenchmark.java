@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ColorScheme;
+import model.Graph;
+import model.RectMazeGameModel;
+import view.MazeRenderer;
+
+/**
+ * Measures drawing a whole maze, and filling a single cell as the search animation does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+  @Param({"20x40", "100x160"})
+  public String size;
+
+  @Param({"0.5"})
+  public double bias;
+
+  @Param({"6", "15"})
+  public int cellSize;
+
+  private RectMazeGameModel model;
+  private MazeRenderer renderer;
+  private int next = 0;
+
+  @Setup
+  public void setUp() {
+    model = new RectMazeGameModel(MazeSizes.height(size), MazeSizes.width(size), bias);
+    Graph.Builder builder = model.startGame();
+    while (builder.hasNextBuild()) {
+      builder.nextBuild();
+    }
+    renderer = new MazeRenderer(model, cellSize);
+    renderer.renderGame();
+  }
+
+  @Benchmark
+  public BufferedImage renderGame() {
+    return renderer.renderGame();
+  }
+
+  @Benchmark
+  public int renderFill() {
+    next = (next + 1) % (model.getMazeWidth() * model.getMazeHeight());
+    renderer.renderFill(next % model.getMazeWidth(), next / model.getMazeWidth(),
+        ColorScheme.SEARCH_VISITED);
+    return next;
+  }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.AStarSearchUtil;
+import model.BidirectionalSearchUtil;
+import model.Graph;
+import model.SearchUtil;
+import model.WorklistSearchUtil;
+import structures.IntQueue;
+import structures.IntStack;
+
+/**
+ * Measures searching a maze from its top left to its bottom right cell.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+
+  @Param({"100x160", "1000x1000"})
+  public String size;
+
+  @Param({"0.1", "0.5", "0.9"})
+  public double bias;
+
+  @Param({"bfs", "dfs", "astar", "bidirectional"})
+  public String search;
+
+  private Graph maze;
+
+  @Setup
+  public void setUp() {
+    maze = Graph.rectMazeBuilder()
+        .height(MazeSizes.height(size)).width(MazeSizes.width(size)).bias(bias).buildInstant();
+  }
+
+  @Benchmark
+  public int instantSearch() {
+    int target = maze.numVertices() - 1;
+    SearchUtil util;
+    switch (search) {
+    case "bfs":
+      util = new WorklistSearchUtil(maze, new IntQueue(), 0, target);
+      break;
+    case "dfs":
+      util = new WorklistSearchUtil(maze, new IntStack(), 0, target);
+      break;
+    case "astar":
+      util = new AStarSearchUtil(maze, 0, target);
+      break;
+    default:
+      util = new BidirectionalSearchUtil(maze, 0, target);
+    }
+    util.instantSearch();
+    return util.getNodesExpanded();
+  }
+}
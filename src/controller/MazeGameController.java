@@ -1,35 +1,56 @@
 package controller;
 
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+
+import metrics.MazeMetrics;
+import metrics.TickEvent;
 
 import model.ColorScheme;
 import model.Direction;
+import model.Graph;
 import model.Graph.Builder;
-import model.MazeGameModel;
+import model.Graph.RectMazeBuilder;
+import model.GridMazeGameModel;
+import model.MazeAlgorithm;
 import model.ReconstructUtil;
 import model.SearchUtil;
 import view.MazeGameView;
 
 public class MazeGameController implements KeyListener {
 
-  private final MazeGameModel model;
+  private static final int DEFAULT_FRAME_PERIOD = 16;
+  private static final int PACED_FRAMES = 60;
+
+  private final GridMazeGameModel model;
   private final MazeGameView view;
   private SearchUtil search;
+  private boolean reconstructing;
   private Builder build;
   private ReconstructUtil recon;
+  private SwingWorker<RectMazeBuilder, Integer> generation;
   private Map<String, Direction> controls;
+  private final int framePeriod = framePeriod();
+  private long frameBudget = framePeriod * 1_000_000L / 2;
+  private int stepsPerFrame = 0;
+  private int algorithm = 0;
 
-  public MazeGameController(MazeGameModel model, int maxWidth, int maxHeight) throws IllegalArgumentException {
+  public MazeGameController(GridMazeGameModel model, int maxWidth, int maxHeight) throws IllegalArgumentException {
     if (model == null) {
       throw new IllegalArgumentException("Model cannot be null.");
     }
     this.model = model;
     this.view = new MazeGameView(model, this, maxWidth, maxHeight);
-    build = model.startGame();
   }
 
   public void runGame(Map<String, Direction> controls) 
@@ -40,9 +61,9 @@ public class MazeGameController implements KeyListener {
     
     this.controls = controls;
     
-    view.renderGame();
+    restart();
     
-    new javax.swing.Timer(1, new ActionListener() {
+    new javax.swing.Timer(framePeriod, new ActionListener() {
       public void actionPerformed(ActionEvent e) {
          onTick();
       }
@@ -55,30 +76,59 @@ public class MazeGameController implements KeyListener {
       
       Direction d = controls.getOrDefault(next, null);
       if (d != null) {
+        int from = model.getCurrentVertex();
         try {
           model.move(d);
           if (model.isMazeSolved()) {
-            view.renderMessage("Maze solved!");
+            view.renderMessage("Maze solved! The shortest path was "
+                + model.getStats().getSolutionLength() + " steps.");
             model.setFreeToMove(false);
             recon = model.reconstruct();
           }
         } catch (IllegalArgumentException e) {
           return;
         }
-        view.renderGame();
+        view.renderCell(from);
+        view.renderCell(model.getCurrentVertex());
         return;
       }
       
       switch (next) {
       case "d":
-        search = model.dfs();
+        startSearch(model.dfs());
         break;
       case "b":
-        search = model.bfs();
+        startSearch(model.bfs());
+        break;
+      case "h":
+        startSearch(model.aStar());
+        break;
+      case "t":
+        startSearch(model.bidirectionalBfs());
         break;
       case "r":
-        build = model.startGame();
-        view.renderMessage("");
+        restart();
+        break;
+      case "g":
+        nextAlgorithm();
+        break;
+      case "i":
+        setInstant();
+        view.renderMessage("Running each phase in a single frame.");
+        break;
+      case "p":
+        setPaced();
+        view.renderMessage("Pacing each phase over about " + PACED_FRAMES + " frames.");
+        break;
+      case "+":
+        setStepsPerFrame(stepsPerFrame() >= Integer.MAX_VALUE / 2
+            ? Integer.MAX_VALUE : stepsPerFrame() * 2);
+        view.renderMessage("Running " + stepsPerFrame + " steps per frame.");
+        break;
+      case "-":
+        setStepsPerFrame(Math.max(1, stepsPerFrame() / 2));
+        view.renderMessage("Running " + stepsPerFrame + " steps per frame.");
+        break;
       }
     } catch (IllegalStateException e) {
 
@@ -86,14 +136,206 @@ public class MazeGameController implements KeyListener {
 
   }
 
+  /**
+   * Starts stepping through the given search, announcing it once rather than on every step.
+   * 
+   * @param started the search
+   */
+  private void startSearch(SearchUtil started) {
+    search = started;
+    reconstructing = false;
+    view.renderMessage("Searching for path...");
+  }
+
+  /**
+   * Switches to the next of {@link MazeAlgorithm#NAMES} and starts a new game with it. The first,
+   * Kruskal's algorithm, is the model's default.
+   */
+  private void nextAlgorithm() {
+    algorithm = (algorithm + 1) % MazeAlgorithm.NAMES.size();
+    String name = MazeAlgorithm.NAMES.get(algorithm);
+    model.setAlgorithm(algorithm == 0 ? null : MazeAlgorithm.named(name));
+    restart();
+    view.renderMessage("Generating maze with " + name + "...");
+  }
+
+  /**
+   * Starts generating a new maze on a background thread, cancelling any maze still being
+   * generated. The current game stops straight away, and the new one starts once its maze is
+   * ready.
+   */
+  private void restart() {
+    if (generation != null) {
+      generation.cancel(true);
+    }
+    model.setFreeToMove(false);
+    search = null;
+    build = null;
+    recon = null;
+    
+    int edges = model.getMazeHeight() * model.getMazeWidth() - 1;
+    generation = new SwingWorker<RectMazeBuilder, Integer>() {
+      @Override
+      protected RectMazeBuilder doInBackground() {
+        return model.prepareGame(accepted -> publish(accepted));
+      }
+
+      @Override
+      protected void process(List<Integer> chunks) {
+        if (!isCancelled()) {
+          view.renderMessage("Generating maze... " + chunks.get(chunks.size() - 1)
+              + " / " + edges + " edges");
+        }
+      }
+
+      @Override
+      protected void done() {
+        if (generation != this) {
+          return;
+        }
+        generation = null;
+        try {
+          build = model.startGame(get());
+          view.renderGame();
+          view.renderMessage("Building maze...");
+        } catch (CancellationException | InterruptedException e) {
+          // superseded by a newer generation
+        } catch (ExecutionException e) {
+          view.renderMessage("Could not generate maze: " + e.getCause().getMessage());
+        }
+      }
+    };
+    view.renderMessage("Generating maze...");
+    generation.execute();
+  }
+
+  /**
+   * Runs as many steps of the current build, search and reconstruction as the frame allows, then
+   * repaints everything they changed at once. Each tick is one display refresh. The view times
+   * the frame itself, from the first cell redrawn until it is painted.
+   */
   public void onTick() {
+    TickEvent event = new TickEvent();
+    event.begin();
+    long start = System.nanoTime();
+    long deadline = start + frameBudget;
+    int limit = stepsPerFrame();
+    int steps = 0;
+    while (step()) {
+      steps++;
+      if (steps >= limit || stepsPerFrame == 0 && System.nanoTime() >= deadline) {
+        break;
+      }
+    }
+    int cells = view.flushRepaints();
+
+    // idle ticks are not recorded
+    if (steps > 0) {
+      MazeMetrics.get().recordTick(System.nanoTime() - start);
+      if (event.shouldCommit()) {
+        event.steps = steps;
+        event.cellsDrawn = cells;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Produces the number of steps to run this frame. Paced frames run enough steps for a phase over
+   * every cell of the maze to last about {@value #PACED_FRAMES} frames, so small mazes still
+   * animate and large ones do not take minutes.
+   *
+   * @return the number of steps to run this frame
+   */
+  private int stepsPerFrame() {
+    if (stepsPerFrame > 0) {
+      return stepsPerFrame;
+    }
+    return Math.max(1, model.getMazeHeight() * model.getMazeWidth() / PACED_FRAMES);
+  }
+
+  /**
+   * Paces each phase over a bounded number of frames, with steps scaled to the size of the maze and
+   * cut short once the frame budget is spent. This is the default.
+   */
+  public void setPaced() {
+    this.stepsPerFrame = 0;
+  }
+
+  /**
+   * Caps the time paced frames spend on steps. The default is half a frame, which leaves the rest
+   * of the frame for painting. Switches to paced frames.
+   *
+   * @param millis the time budget of each frame in milliseconds
+   * @throws IllegalArgumentException if the budget is not positive
+   */
+  public void setFrameBudget(int millis) throws IllegalArgumentException {
+    if (millis < 1) {
+      throw new IllegalArgumentException("Frame budget must be positive.");
+    }
+    this.frameBudget = millis * 1_000_000L;
+    this.stepsPerFrame = 0;
+  }
+
+  /**
+   * Runs the given number of steps each frame, however long they take.
+   *
+   * @param steps the number of steps each frame
+   * @throws IllegalArgumentException if the number of steps is not positive
+   */
+  public void setStepsPerFrame(int steps) throws IllegalArgumentException {
+    if (steps < 1) {
+      throw new IllegalArgumentException("Steps per frame must be positive.");
+    }
+    this.stepsPerFrame = steps;
+  }
+
+  /**
+   * Runs builds, searches and reconstructions to completion within a single frame.
+   */
+  public void setInstant() {
+    this.stepsPerFrame = Integer.MAX_VALUE;
+  }
+
+  /**
+   * Produces the time between refreshes of the default display, or 16 milliseconds if it is
+   * unknown.
+   *
+   * @return the time between frames in milliseconds
+   */
+  private static int framePeriod() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return DEFAULT_FRAME_PERIOD;
+    }
+    int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+        .getDisplayMode().getRefreshRate();
+    if (rate == DisplayMode.REFRESH_RATE_UNKNOWN) {
+      return DEFAULT_FRAME_PERIOD;
+    }
+    return Math.max(1, 1000 / rate);
+  }
+
+  /**
+   * Advances the current build, search and reconstruction by one step each. Messages are only
+   * shown when a phase starts or ends, so a frame of many steps does not set them on every step.
+   *
+   * @return true if any of them did something, false if there was nothing to do
+   */
+  private boolean step() {
+    boolean busy = search != null || build != null || recon != null;
     if (search != null) {
       if (search.hasNextSearch()) {
-        view.renderMessage("Searching for path...");
-        view.updateColor(search.incrementSearch(), ColorScheme.SEARCH_VISITED);
+        int visited = search.incrementSearch();
+        if (visited != Graph.NO_VERTEX) {
+          view.updateColor(visited, ColorScheme.SEARCH_VISITED);
+        }
       } 
       else if (search.hasNextReconstruction()) {
-        view.renderMessage("Path found! Reconstructing path...");
+        if (!reconstructing) {
+          reconstructing = true;
+          view.renderMessage("Path found after expanding " + search.getNodesExpanded()
+              + " cells! Reconstructing path...");
+        }
         view.updateColor(search.incrementReconstruction(), ColorScheme.RECON);
       } else {
         view.updateColor(model.getCurrentVertex(), ColorScheme.RECON);
@@ -103,15 +345,15 @@ public class MazeGameController implements KeyListener {
     }
     if (build != null) {
       if (build.hasNextBuild()) {
-        view.renderMessage("Building maze...");
-        build.nextBuild();
+        int edge = build.nextBuild();
+        view.renderCell(model.getMaze().edgeComesFrom(edge));
+        view.renderCell(model.getMaze().edgeGoesTo(edge));
       } 
       else {
         view.renderMessage("");
         model.setFreeToMove(true);
         build = null;
       }
-      view.renderGame();
     }
     if (recon != null) {
       if (recon.hasNextReconstruction()) {
@@ -121,6 +363,7 @@ public class MazeGameController implements KeyListener {
         recon = null;
       }
     }
+    return busy;
   }
 
   @Override
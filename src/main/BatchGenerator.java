@@ -0,0 +1,218 @@
+package main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import metrics.MazeMetrics;
+import model.EllerMazeGenerator;
+import model.Graph;
+import model.MazeAlgorithm;
+import model.MazeFile;
+
+/**
+ * Generates a batch of mazes without a display, one for each seed in a range, spread across every
+ * core. Prints the throughput, the median and 99th percentile time to generate a maze, and the
+ * peak heap used. Takes the number of mazes, their height, width and bias, the first seed and
+ * optionally a directory to write the mazes to, which default to 100, 1000, 1000, 0.5 and 0.
+ * Passing {@code eller} after the directory, which may be {@code -} for none, generates each maze
+ * with {@link EllerMazeGenerator} and streams it to its file a row at a time, so no maze is ever
+ * held in memory. Passing one of {@link MazeAlgorithm#NAMES} there instead generates each maze
+ * with that algorithm.
+ *
+ * <p>Each maze is written to {@code maze-<seed>.maze} in the format of {@link MazeFile}.
+ */
+public class BatchGenerator {
+
+  private static final String USAGE =
+      "usage: BatchGenerator [count [height [width [bias [first-seed [dir|- [eller|algorithm]]]]]]]";
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    int count;
+    int height;
+    int width;
+    double bias;
+    long firstSeed;
+    try {
+      count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+      height = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+      width = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+      bias = args.length > 3 ? Double.parseDouble(args[3]) : 0.5;
+      firstSeed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+    } catch (NumberFormatException e) {
+      usage(e.getMessage());
+      return;
+    }
+    if (count < 1 || height < 1 || width < 1) {
+      usage("The count, height and width must be positive.");
+      return;
+    }
+    if (!(bias >= 0 && bias <= 1)) {
+      usage("The bias must be between 0 and 1.");
+      return;
+    }
+    Path dir = args.length > 5 && !args[5].equals("-") ? Paths.get(args[5]) : null;
+    boolean eller = args.length > 6 && args[6].equals("eller");
+    MazeAlgorithm algorithm;
+    try {
+      algorithm = args.length > 6 && !eller ? MazeAlgorithm.named(args[6]) : null;
+    } catch (IllegalArgumentException e) {
+      usage(e.getMessage());
+      return;
+    }
+    if (dir != null) {
+      Files.createDirectories(dir);
+    }
+
+    MazeMetrics.register();
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Long>> latencies = new ArrayList<>(count);
+    resetPeakHeap();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      long seed = firstSeed + i;
+      latencies.add(executor.submit(() -> eller
+          ? stream(height, width, bias, seed, dir)
+          : generate(height, width, bias, seed, algorithm, dir)));
+    }
+    double[] ms = new double[count];
+    try {
+      for (int i = 0; i < count; i++) {
+        ms[i] = latencies.get(i).get() / 1e6;
+      }
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      throw new IllegalStateException("Could not generate maze.", e.getCause());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    executor.shutdown();
+
+    Arrays.sort(ms);
+    System.out.printf("%d %smazes of %d x %d, bias %.2f, seeds %d to %d, %d threads%n",
+        count, eller ? "streamed Eller " : algorithm != null ? args[6] + " " : "", height, width,
+        bias, firstSeed, firstSeed + count - 1, threads);
+    System.out.printf("throughput: %10.1f mazes/s %14.0f cells/s%n",
+        count / seconds, (double) count * height * width / seconds);
+    System.out.printf("latency:    %10.1f ms p50 %10.1f ms p99%n",
+        percentile(ms, 0.5), percentile(ms, 0.99));
+    System.out.printf("peak heap:  %10.1f MB%n", peakHeap() / 1e6);
+  }
+
+  /**
+   * Prints what is wrong with the arguments and how to use them, then exits.
+   *
+   * @param problem what is wrong with the arguments
+   */
+  private static void usage(String problem) {
+    System.err.println(problem);
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+
+  /**
+   * Generates a maze and writes it to the given directory.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @param algorithm the algorithm to generate the maze with, or null for the default
+   * @param dir the directory to write the maze to, or null to not write it
+   * @return the time taken to generate and write the maze in nanoseconds
+   */
+  private static long generate(int height, int width, double bias, long seed,
+      MazeAlgorithm algorithm, Path dir) {
+    long start = System.nanoTime();
+    Graph maze = Graph.rectMazeBuilder().height(height).width(width).bias(bias).seed(seed)
+        .algorithm(algorithm).buildInstant();
+    if (dir != null) {
+      try {
+        MazeFile.write(maze, dir.resolve("maze-" + seed + ".maze"));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Generates a maze a row at a time and streams it to the given directory.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @param dir the directory to write the maze to, or null to discard the rows
+   * @return the time taken to generate and write the maze in nanoseconds
+   */
+  private static long stream(int height, int width, double bias, long seed, Path dir) {
+    long start = System.nanoTime();
+    EllerMazeGenerator generator = new EllerMazeGenerator().height(height).width(width)
+        .bias(bias).seed(seed);
+    try {
+      if (dir == null) {
+        generator.generate((row, cells) -> { });
+      } else {
+        try (MazeFile.RowWriter rows =
+            MazeFile.writeRows(dir.resolve("maze-" + seed + ".maze"), height, width, bias, seed)) {
+          generator.generate(rows);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Produces the value below which the given fraction of the sorted values fall.
+   *
+   * @param sorted the values, in ascending order
+   * @param fraction the fraction
+   * @return the percentile
+   */
+  private static double percentile(double[] sorted, double fraction) {
+    int i = (int) Math.ceil(fraction * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+  }
+
+  /**
+   * Resets the peak usage of every heap memory pool to its current usage.
+   */
+  private static void resetPeakHeap() {
+    for (MemoryPoolMXBean bean : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (bean.getType() == MemoryType.HEAP) {
+        bean.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Produces the sum of the peak usages of every heap memory pool.
+   *
+   * @return the peak heap usage in bytes
+   */
+  private static long peakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean bean : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (bean.getType() == MemoryType.HEAP) {
+        peak += bean.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
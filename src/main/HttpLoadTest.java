@@ -0,0 +1,108 @@
+package main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+import server.MazeHttpServer;
+
+/**
+ * Sends requests for mazes and solutions to a {@link MazeHttpServer} from many threads at once,
+ * and prints the requests per second, the latency of each request and the hit rate of the
+ * server's cache. Three in four requests are for a maze and the rest for a solution. Seeds are
+ * skewed towards the low end of their range, so a few mazes are requested far more often than
+ * the rest, as popular mazes would be.
+ *
+ * <p>Takes the number of requests, the number of threads, the number of seeds, the height and
+ * width of the mazes and the port of the server, which default to 2000, 8, 100, 200, 200 and 0.
+ * With port 0 a server is started in this JVM with a 16MB cache, with
+ * {@code sun.net.httpserver.nodelay} set as {@link MazeHttpServer} recommends.
+ */
+public class HttpLoadTest {
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+    int height = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+    int width = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+    int port = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+    MazeHttpServer server = null;
+    if (port == 0) {
+      if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+      }
+      server = new MazeHttpServer(0, Runtime.getRuntime().availableProcessors(), 16 << 20);
+      server.start();
+      port = server.getPort();
+    }
+    String base = "http://127.0.0.1:" + port;
+
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    LatencyHistogram latency = new LatencyHistogram();
+    LongAdder failures = new LongAdder();
+    LongAdder bytes = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> results = new ArrayList<>(threads);
+
+    long start = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      int count = requests / threads + (t < requests % threads ? 1 : 0);
+      SplittableRandom rand = new SplittableRandom(t);
+      results.add(executor.submit(() -> {
+        for (int i = 0; i < count; i++) {
+          double r = rand.nextDouble();
+          long seed = (long) (seeds * r * r * r);
+          String path = rand.nextInt(4) == 0 ? "/solution" : "/maze";
+          URI uri = URI.create(base + path + "?height=" + height + "&width=" + width
+              + "&bias=0.5&seed=" + seed);
+          long sent = System.nanoTime();
+          HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).build(),
+              HttpResponse.BodyHandlers.ofByteArray());
+          latency.record(System.nanoTime() - sent);
+          bytes.add(response.body().length);
+          if (response.statusCode() != 200) {
+            failures.increment();
+          }
+        }
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      throw new IllegalStateException("Request failed.", e.getCause());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    executor.shutdown();
+
+    System.out.printf("%d requests for %d seeds of %d x %d, %d threads%n",
+        requests, seeds, height, width, threads);
+    System.out.printf("throughput: %10.1f requests/s %10.1f MB/s %8d failures%n",
+        requests / seconds, bytes.sum() / seconds / 1e6, failures.sum());
+    System.out.printf("latency:    %10.2f ms p50 %8.2f ms p99%n",
+        latency.percentile(0.5) / 1e6, latency.percentile(0.99) / 1e6);
+    HttpResponse<String> stats = client.send(
+        HttpRequest.newBuilder(URI.create(base + "/stats")).build(),
+        HttpResponse.BodyHandlers.ofString());
+    System.out.print(stats.body());
+    if (server != null) {
+      server.close();
+    }
+  }
+}
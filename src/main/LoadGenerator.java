@@ -0,0 +1,190 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+import model.Direction;
+import server.GameServer;
+
+/**
+ * Plays many sessions on a {@link GameServer} at once, each on its own connection and thread, and
+ * prints the moves per second and the latency of each move. Every session starts a game, takes a
+ * random walk through the maze, starting a new game whenever it reaches the target, then runs a
+ * breadth first search and retraces its moves. Sessions are spread over a few seeds, so most of
+ * them share their maze with others.
+ *
+ * <p>Takes the number of sessions, the number of moves per session, the height, width and bias of
+ * the mazes, the number of seeds and the port of the server, which default to 200, 2000, 50, 50,
+ * 0.5, 10 and 0. With port 0 a server is started in this JVM.
+ */
+public class LoadGenerator {
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int moves = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    int height = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+    int width = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+    double bias = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+    int seeds = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+    int port = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+
+    GameServer server = null;
+    if (port == 0) {
+      server = new GameServer(0, false);
+      server.start();
+      port = server.getPort();
+    }
+
+    LatencyHistogram latency = new LatencyHistogram();
+    LongAdder errors = new LongAdder();
+    CountDownLatch connected = new CountDownLatch(sessions);
+    CountDownLatch go = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(sessions);
+    List<Future<?>> results = new ArrayList<>(sessions);
+    for (int i = 0; i < sessions; i++) {
+      String newGame = "NEW " + height + " " + width + " " + bias + " " + (i % seeds);
+      long seed = i;
+      int serverPort = port;
+      results.add(executor.submit(() -> {
+        play(serverPort, newGame, moves, seed, connected, go, latency, errors);
+        return null;
+      }));
+    }
+
+    connected.await();
+    int peakSessions = server == null ? sessions : server.getActiveSessions();
+    long start = System.nanoTime();
+    go.countDown();
+    try {
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      throw new IllegalStateException("Session failed.", e.getCause());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    executor.shutdown();
+
+    System.out.printf("%d sessions over %d mazes of %d x %d, bias %.2f, %d moves each%n",
+        peakSessions, Math.min(seeds, sessions), height, width, bias, moves);
+    System.out.printf("throughput: %10.0f moves/s %8d errors%n",
+        (double) sessions * moves / seconds, errors.sum());
+    System.out.printf("latency:    %10.1f us p50 %8.1f us p99 %8.1f us p99.9%n",
+        latency.percentile(0.5) / 1e3, latency.percentile(0.99) / 1e3,
+        latency.percentile(0.999) / 1e3);
+    if (server != null) {
+      System.out.printf("mazes generated: %d%n", server.getMazesGenerated());
+      server.close();
+    }
+  }
+
+  /**
+   * Plays one session, waiting until every session has connected before moving.
+   *
+   * @param port the port of the server
+   * @param newGame the command starting a game
+   * @param moves the number of moves to make
+   * @param seed the seed for the random walk
+   * @param connected the latch counting down connected sessions
+   * @param go the latch released when every session has connected
+   * @param latency the histogram to record the latency of each move in
+   * @param errors the count of error replies
+   * @throws IOException if the connection fails
+   * @throws InterruptedException if the thread is interrupted while waiting for the others
+   */
+  private static void play(int port, String newGame, int moves, long seed,
+      CountDownLatch connected, CountDownLatch go, LatencyHistogram latency, LongAdder errors)
+      throws IOException, InterruptedException {
+    SplittableRandom rand = new SplittableRandom(seed);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        Writer out = new BufferedWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+      socket.setTcpNoDelay(true);
+      String reply = send(in, out, newGame, errors);
+      connected.countDown();
+      go.await();
+
+      for (int i = 0; i < moves; i++) {
+        if (reply.startsWith("SOLVED")) {
+          reply = send(in, out, newGame, errors);
+        }
+        String move = "MOVE " + randomPassage(lastNumber(reply), rand);
+        long start = System.nanoTime();
+        reply = send(in, out, move, errors);
+        latency.record(System.nanoTime() - start);
+      }
+      send(in, out, "RECON", errors);
+      send(in, out, "BFS", errors);
+      send(in, out, "QUIT", errors);
+    }
+  }
+
+  /**
+   * Sends a command and waits for the reply.
+   *
+   * @param in the reader for replies
+   * @param out the writer for commands
+   * @param command the command
+   * @param errors the count of error replies
+   * @return the reply
+   * @throws IOException if the connection fails or is closed
+   */
+  private static String send(BufferedReader in, Writer out, String command, LongAdder errors)
+      throws IOException {
+    out.write(command);
+    out.write('\n');
+    out.flush();
+    String reply = in.readLine();
+    if (reply == null) {
+      throw new IOException("Server closed the connection.");
+    }
+    if (reply.startsWith("ERR")) {
+      errors.increment();
+    }
+    return reply;
+  }
+
+  /**
+   * Produces the last number of a reply.
+   *
+   * @param reply the reply
+   * @return the number after the last space
+   */
+  private static int lastNumber(String reply) {
+    return Integer.parseInt(reply.substring(reply.lastIndexOf(' ') + 1));
+  }
+
+  /**
+   * Picks one of the passages in a bitmask at random.
+   *
+   * @param passages the bitmask of passages, with at least one set
+   * @param rand the source of randomness
+   * @return the direction of the passage
+   */
+  private static Direction randomPassage(int passages, SplittableRandom rand) {
+    for (int skip = rand.nextInt(Integer.bitCount(passages)); skip > 0; skip--) {
+      passages &= passages - 1;
+    }
+    return Direction.lowestIn(passages);
+  }
+}
@@ -3,14 +3,37 @@ package main;
 import java.util.HashMap;
 import java.util.Map;
 
+import metrics.MazeMetrics;
 import model.Direction;
 import controller.MazeGameController;
+import model.MazePool;
 import model.RectMazeGameModel;
 
+/**
+ * Runs the game. By default each phase is paced over about a second. The optional arguments pick
+ * another speed: "instant", "steps N" for N steps per frame, or "budget MS" to cap the time paced
+ * frames spend on steps. While playing, i, p, + and - switch to instant, paced, and twice or half
+ * as many steps per frame, and g switches to the next algorithm for generating mazes.
+ */
 public class Main {
   public static void main(String[] args) {
+     MazeMetrics.register();
      MazeGameController controller = new MazeGameController(
-         new RectMazeGameModel(20, 40, 0.5), 1250, 650);
+         new RectMazeGameModel(20, 40, 0.5, new MazePool(2, 1)), 1250, 650);
+     try {
+       if (args.length == 1 && args[0].equals("instant")) {
+         controller.setInstant();
+       } else if (args.length == 2 && args[0].equals("steps")) {
+         controller.setStepsPerFrame(Integer.parseInt(args[1]));
+       } else if (args.length == 2 && args[0].equals("budget")) {
+         controller.setFrameBudget(Integer.parseInt(args[1]));
+       } else if (args.length != 0) {
+         throw new IllegalArgumentException("Unknown arguments.");
+       }
+     } catch (IllegalArgumentException e) {
+       System.err.println("usage: Main [instant | steps N | budget MS]");
+       System.exit(2);
+     }
      Map<String, Direction> controls = new HashMap<>();
      controls.put("w", Direction.UP);
      controls.put("a", Direction.LEFT);
@@ -0,0 +1,73 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import model.Graph;
+
+/**
+ * Times generating the spanning tree of a large maze with Kruskal's algorithm on the calling thread and in strips on
+ * pools of increasing size, printing the speedup of each pool over Kruskal's and over a single
+ * worker. Takes the height, width and bias of the maze and the most workers to try, which default
+ * to 2500, 4000, 0.5 and the number of cores.
+ *
+ * <p>A pool of one worker runs Kruskal's algorithm on the calling thread, so the speedups measure
+ * the strips against the sequential algorithm they replace.
+ */
+public class ParallelGenerationBenchmark {
+
+  private static final int WARMUPS = 2;
+  private static final int RUNS = 5;
+
+  public static void main(String[] args) {
+    int height = args.length > 0 ? Integer.parseInt(args[0]) : 2500;
+    int width = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+    double bias = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int maxWorkers = args.length > 3 ? Integer.parseInt(args[3]) : cores;
+
+    System.out.printf("%d x %d maze, bias %.2f, %d cores%n", height, width, bias, cores);
+    double kruskal = time(height, width, bias, null);
+    System.out.printf("kruskal,   sequential: %8.1f ms%n", kruskal);
+
+    double single = 0;
+    double best = Double.MAX_VALUE;
+    for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(workers);
+      double ms = time(height, width, bias, pool);
+      pool.shutdown();
+      if (workers == 1) {
+        single = ms;
+      }
+      best = Math.min(best, ms);
+      System.out.printf("strips,  %2d workers: %8.1f ms (%.2fx kruskal, %.2fx 1 worker)%n",
+          workers, ms, kruskal / ms, single / ms);
+    }
+    System.out.println(best < kruskal
+        ? "strips beat kruskal; pass a pool to generate in parallel"
+        : "strips do not beat kruskal on this machine");
+  }
+
+  /**
+   * Produces the median time taken to generate a maze, without carving its edges.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param pool the pool to build on, or null to build on this thread
+   * @return the median time in milliseconds
+   */
+  private static double time(int height, int width, double bias, ForkJoinPool pool) {
+    double[] times = new double[RUNS];
+    for (int i = -WARMUPS; i < RUNS; i++) {
+      long start = System.nanoTime();
+      Graph.rectMazeBuilder().height(height).width(width).bias(bias).pool(pool)
+          .buildIncrementally();
+      if (i >= 0) {
+        times[i] = (System.nanoTime() - start) / 1e6;
+      }
+    }
+    Arrays.sort(times);
+    return times[RUNS / 2];
+  }
+}
@@ -0,0 +1,22 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a phase of building a maze: generating it, or carving all of its passages at once.
+ */
+@Name("mazegame.Build")
+@Label("Maze Build")
+@Category("Maze Game")
+@Description("A phase of building a maze")
+public final class BuildEvent extends jdk.jfr.Event {
+
+  @Label("Phase")
+  public String phase;
+
+  @Label("Cells")
+  public int cells;
+}
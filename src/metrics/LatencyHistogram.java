@@ -0,0 +1,89 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a histogram of durations in nanoseconds, safe to record into from any thread. Each
+ * power of two is split into 8 buckets, so percentiles are accurate to within 12.5% whatever
+ * their size, and recording is a single atomic increment with no allocation.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds, where negative durations count as 0
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+  }
+
+  /**
+   * Produces the duration below which the given fraction of the recorded durations fall.
+   *
+   * @param fraction the fraction, between 0 and 1
+   * @return the upper bound of the bucket of the percentile in nanoseconds, or 0 if nothing has
+   *     been recorded
+   */
+  public long percentile(double fraction) {
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      total += counts.get(i);
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length() && total > 0; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return upperBoundOf(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Forgets every recorded duration.
+   */
+  public void clear() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  /**
+   * Produces the bucket of a duration. Durations below 8 have a bucket each, and above that the
+   * bucket is picked by the highest bit and the three bits below it.
+   *
+   * @param nanos the duration
+   * @return the index of the bucket
+   */
+  private static int bucketOf(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    int exp = 63 - Long.numberOfLeadingZeros(nanos);
+    int sub = (int) (nanos >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Produces the largest duration in a bucket.
+   *
+   * @param bucket the index of the bucket
+   * @return the largest duration in the bucket
+   */
+  private static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exp = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    long lower = (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+    return lower + (1L << (exp - SUB_BITS)) - 1;
+  }
+}
@@ -0,0 +1,185 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the work done by the game, for reading over JMX as {@code mazegame:type=MazeMetrics}.
+ * Recording is a few uncontended adds, so it is always on. Custom JFR events in this package give
+ * the timing of individual builds, searches, ticks and renders when a recording is running.
+ */
+public final class MazeMetrics implements MazeMetricsMBean {
+
+  private static final MazeMetrics INSTANCE = new MazeMetrics();
+  private static final double NANOS_PER_MILLI = 1e6;
+
+  private final LongAdder mazesGenerated = new LongAdder();
+  private final LongAdder cellsGenerated = new LongAdder();
+  private final LongAdder generationNanos = new LongAdder();
+  private final LongAdder searches = new LongAdder();
+  private final LongAdder nodesExpanded = new LongAdder();
+  private final LongAdder ticks = new LongAdder();
+  private final LongAdder framesRendered = new LongAdder();
+  private final LongAdder cellsDrawn = new LongAdder();
+  private final LatencyHistogram tickTimes = new LatencyHistogram();
+  private final LatencyHistogram frameTimes = new LatencyHistogram();
+  private final LatencyHistogram generationTimes = new LatencyHistogram();
+
+  private MazeMetrics() {
+  }
+
+  /**
+   * Produces the metrics of this process.
+   *
+   * @return the metrics
+   */
+  public static MazeMetrics get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server, if they are not registered already.
+   *
+   * @throws IllegalStateException if the metrics cannot be registered
+   */
+  public static void register() throws IllegalStateException {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(INSTANCE, new ObjectName("mazegame:type=MazeMetrics"));
+    } catch (InstanceAlreadyExistsException e) {
+      // already registered
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register metrics.", e);
+    }
+  }
+
+  /**
+   * Records the generation of a maze.
+   *
+   * @param cells the number of cells in the maze
+   * @param nanos the time taken in nanoseconds
+   */
+  public void recordGeneration(int cells, long nanos) {
+    mazesGenerated.increment();
+    cellsGenerated.add(cells);
+    generationNanos.add(nanos);
+    generationTimes.record(nanos);
+  }
+
+  /**
+   * Records a finished search.
+   *
+   * @param expanded the number of nodes the search expanded
+   */
+  public void recordSearch(int expanded) {
+    searches.increment();
+    nodesExpanded.add(expanded);
+  }
+
+  /**
+   * Records a tick of the game that ran any steps.
+   *
+   * @param nanos the time taken in nanoseconds
+   */
+  public void recordTick(long nanos) {
+    ticks.increment();
+    tickTimes.record(nanos);
+  }
+
+  /**
+   * Records a frame painted on screen.
+   *
+   * @param cells the number of cells redrawn for the frame
+   * @param nanos the time from the first cell redrawn until the frame was painted in nanoseconds
+   */
+  public void recordFrame(int cells, long nanos) {
+    framesRendered.increment();
+    cellsDrawn.add(cells);
+    frameTimes.record(nanos);
+  }
+
+  @Override
+  public long getMazesGenerated() {
+    return mazesGenerated.sum();
+  }
+
+  @Override
+  public long getCellsGenerated() {
+    return cellsGenerated.sum();
+  }
+
+  @Override
+  public double getCellsPerSecond() {
+    long nanos = generationNanos.sum();
+    return nanos == 0 ? 0 : cellsGenerated.sum() * 1e9 / nanos;
+  }
+
+  @Override
+  public long getSearches() {
+    return searches.sum();
+  }
+
+  @Override
+  public long getNodesExpanded() {
+    return nodesExpanded.sum();
+  }
+
+  @Override
+  public long getTicks() {
+    return ticks.sum();
+  }
+
+  @Override
+  public double getTickTimeP50Millis() {
+    return tickTimes.percentile(0.5) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public double getTickTimeP99Millis() {
+    return tickTimes.percentile(0.99) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public long getFramesRendered() {
+    return framesRendered.sum();
+  }
+
+  @Override
+  public long getCellsDrawn() {
+    return cellsDrawn.sum();
+  }
+
+  @Override
+  public double getFrameTimeP50Millis() {
+    return frameTimes.percentile(0.5) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public double getFrameTimeP99Millis() {
+    return frameTimes.percentile(0.99) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public double getGenerationTimeP99Millis() {
+    return generationTimes.percentile(0.99) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public void reset() {
+    mazesGenerated.reset();
+    cellsGenerated.reset();
+    generationNanos.reset();
+    searches.reset();
+    nodesExpanded.reset();
+    ticks.reset();
+    framesRendered.reset();
+    cellsDrawn.reset();
+    tickTimes.clear();
+    frameTimes.clear();
+    generationTimes.clear();
+  }
+}
@@ -0,0 +1,55 @@
+package metrics;
+
+/**
+ * Represents the management interface of {@link MazeMetrics}, as seen through JMX.
+ */
+public interface MazeMetricsMBean {
+
+  long getMazesGenerated();
+
+  long getCellsGenerated();
+
+  /**
+   * Produces the number of cells generated per second spent generating.
+   *
+   * @return the generation rate
+   */
+  double getCellsPerSecond();
+
+  long getSearches();
+
+  long getNodesExpanded();
+
+  long getTicks();
+
+  double getTickTimeP50Millis();
+
+  double getTickTimeP99Millis();
+
+  long getFramesRendered();
+
+  long getCellsDrawn();
+
+  /**
+   * Produces the median time from the first cell redrawn for a frame until the frame has been
+   * painted on screen.
+   *
+   * @return the median frame time in milliseconds
+   */
+  double getFrameTimeP50Millis();
+
+  /**
+   * Produces the 99th percentile time from the first cell redrawn for a frame until the frame has
+   * been painted on screen.
+   *
+   * @return the 99th percentile frame time in milliseconds
+   */
+  double getFrameTimeP99Millis();
+
+  double getGenerationTimeP99Millis();
+
+  /**
+   * Sets every counter and histogram back to zero.
+   */
+  void reset();
+}
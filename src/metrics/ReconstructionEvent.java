@@ -0,0 +1,19 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records the reconstruction of the path a search found, from its first step to its last.
+ */
+@Name("mazegame.Reconstruction")
+@Label("Reconstruction")
+@Category("Maze Game")
+@Description("The reconstruction of the path a search found")
+public final class ReconstructionEvent extends jdk.jfr.Event {
+
+  @Label("Path Length")
+  public int pathLength;
+}
@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a phase of rendering a maze: drawing every cell into the image, or painting the image
+ * on screen with the cells redrawn since it was last painted.
+ */
+@Name("mazegame.Render")
+@Label("Render")
+@Category("Maze Game")
+@Description("Drawing a whole maze, or painting the cells redrawn since the last paint")
+public final class RenderEvent extends jdk.jfr.Event {
+
+  @Label("Phase")
+  public String phase;
+
+  @Label("Cells")
+  public int cells;
+}
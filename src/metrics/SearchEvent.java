@@ -0,0 +1,22 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a search for the path through a maze, from when it starts until it finds the target.
+ */
+@Name("mazegame.Search")
+@Label("Search")
+@Category("Maze Game")
+@Description("A search for the path through a maze")
+public final class SearchEvent extends jdk.jfr.Event {
+
+  @Label("Algorithm")
+  public String algorithm;
+
+  @Label("Nodes Expanded")
+  public int nodesExpanded;
+}
@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records the creation of the minimum spanning tree of a maze.
+ */
+@Name("mazegame.SpanningTree")
+@Label("Minimum Spanning Tree")
+@Category("Maze Game")
+@Description("The creation of the minimum spanning tree of a maze")
+public final class SpanningTreeEvent extends jdk.jfr.Event {
+
+  @Label("Algorithm")
+  public String algorithm;
+
+  @Label("Cells")
+  public int cells;
+
+  @Label("Threads")
+  public int threads;
+}
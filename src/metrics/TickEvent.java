@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records a tick of the game: the steps run in it and the cells they redrew into the image. The
+ * cells are painted on screen later, which {@link RenderEvent} records.
+ */
+@Name("mazegame.Tick")
+@Label("Tick")
+@Category("Maze Game")
+@Description("The steps run and cells redrawn in one tick of the game")
+public final class TickEvent extends jdk.jfr.Event {
+
+  @Label("Steps")
+  public int steps;
+
+  @Label("Cells Drawn")
+  public int cellsDrawn;
+}
@@ -0,0 +1,72 @@
+package model;
+
+import structures.IntPriorityQueue;
+
+/**
+ * Represents an A* search, which visits the vertex with the shortest known distance from the
+ * origin plus Manhattan distance to the target first. The Manhattan distance never overestimates,
+ * so the path found is a shortest one even when the maze has loops.
+ */
+public class AStarSearchUtil extends SearchUtil {
+
+  private final IntPriorityQueue worklist;
+  private final int[] distance;
+
+  /**
+   * Constructs a new {@code AStarSearchUtil} object.
+   *
+   * @param maze the maze to search
+   * @param origin the index of the vertex the search starts at
+   * @param target the index of the vertex the search looks for
+   * @throws IllegalArgumentException if the maze is null or either vertex is not in the maze
+   */
+  public AStarSearchUtil(Graph maze, int origin, int target) throws IllegalArgumentException {
+    super(maze, origin, target);
+
+    this.worklist = new IntPriorityQueue(maze.getWidth() + maze.getHeight());
+    this.distance = new int[maze.numVertices()];
+    worklist.add(origin, estimate(origin));
+  }
+
+  /**
+   * Produces the Manhattan distance from the given vertex to the target.
+   *
+   * @param v the index of the vertex
+   * @return the Manhattan distance to the target
+   */
+  private int estimate(int v) {
+    int width = maze.getWidth();
+    return Math.abs(v / width - target / width) + Math.abs(v % width - target % width);
+  }
+
+  @Override
+  public int incrementSearch() throws IllegalCallerException {
+    if (!hasNextSearch()) {
+      throw new IllegalCallerException("Cannot increment search now.");
+    }
+
+    int next = worklist.remove();
+    if (!visited.get(next)) {
+      for (int m = maze.getEdgeMask(next); m != 0; m &= m - 1) {
+        int to = maze.adjacentIn(next, Direction.lowestIn(m));
+        // a cell already queued keeps its path unless this one is shorter
+        if (!this.visited.get(to)
+            && (this.cameFrom[to] == Graph.NO_VERTEX || distance[next] + 1 < distance[to])) {
+          this.cameFrom[to] = next;
+          this.distance[to] = distance[next] + 1;
+          this.worklist.add(to, distance[to] + estimate(to));
+        }
+      }
+
+      visit(next);
+      return next;
+    }
+
+    return Graph.NO_VERTEX;
+  }
+
+  @Override
+  protected boolean isWorklistEmpty() {
+    return worklist.isEmpty();
+  }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Generates mazes with an iterative recursive backtracker. The path so far is kept on an explicit
+ * int stack, and each step carves to a random unvisited neighbor of the cell on top, or pops the
+ * cell if it has none.
+ */
+final class BacktrackerAlgorithm implements MazeAlgorithm {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  @Override
+  public int[] generate(Graph maze, long seed, IntConsumer progress) {
+    int n = maze.numVertices();
+    int[] edges = new int[n - 1];
+    int size = 0;
+    int[] stack = new int[n];
+    int top = 0;
+    BitSet visited = new BitSet(n);
+    SplittableRandom rand = new SplittableRandom(seed);
+    Direction[] open = new Direction[DIRECTIONS.length];
+
+    visited.set(0);
+    stack[top++] = 0;
+    while (top > 0) {
+      int v = stack[top - 1];
+      int choices = 0;
+      for (Direction d : DIRECTIONS) {
+        int to = maze.adjacentIn(v, d);
+        if (to != Graph.NO_VERTEX && !visited.get(to)) {
+          open[choices++] = d;
+        }
+      }
+      if (choices == 0) {
+        top--;
+        continue;
+      }
+
+      Direction d = open[rand.nextInt(choices)];
+      int to = maze.adjacentIn(v, d);
+      visited.set(to);
+      edges[size++] = maze.edgeBetween(v, d);
+      stack[top++] = to;
+      if (size % Graph.PROGRESS_INTERVAL == 0) {
+        Graph.reportProgress(progress, size);
+      }
+    }
+    Graph.reportProgress(progress, size);
+    return edges;
+  }
+}
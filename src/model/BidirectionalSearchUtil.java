@@ -0,0 +1,93 @@
+package model;
+
+import java.util.BitSet;
+
+import structures.IntCollection;
+import structures.IntQueue;
+
+/**
+ * Represents a bidirectional breadth first search, which alternates between searching outwards
+ * from the origin and from the target until the two searches meet.
+ */
+public class BidirectionalSearchUtil extends SearchUtil {
+
+  private final IntCollection fromOrigin = new IntQueue();
+  private final IntCollection fromTarget = new IntQueue();
+  private final BitSet reached;
+  private final BitSet reachedFromTarget;
+  private boolean targetsTurn = false;
+
+  /**
+   * Constructs a new {@code BidirectionalSearchUtil} object.
+   *
+   * @param maze the maze to search
+   * @param origin the index of the vertex the search starts at
+   * @param target the index of the vertex the search looks for
+   * @throws IllegalArgumentException if the maze is null or either vertex is not in the maze
+   */
+  public BidirectionalSearchUtil(Graph maze, int origin, int target)
+      throws IllegalArgumentException {
+    super(maze, origin, target);
+
+    this.reached = new BitSet(maze.numVertices());
+    this.reachedFromTarget = new BitSet(maze.numVertices());
+    fromOrigin.add(origin);
+    fromTarget.add(target);
+    reached.set(origin);
+    reached.set(target);
+    reachedFromTarget.set(target);
+  }
+
+  @Override
+  public int incrementSearch() throws IllegalCallerException {
+    if (!hasNextSearch()) {
+      throw new IllegalCallerException("Cannot increment search now.");
+    }
+
+    boolean side = targetsTurn ? !fromTarget.isEmpty() : fromOrigin.isEmpty();
+    targetsTurn = !targetsTurn;
+    int next = side ? fromTarget.remove() : fromOrigin.remove();
+    if (visited.get(next)) {
+      return Graph.NO_VERTEX;
+    }
+
+    for (int m = maze.getEdgeMask(next); m != 0; m &= m - 1) {
+      int to = maze.adjacentIn(next, Direction.lowestIn(m));
+      if (!reached.get(to)) {
+        reached.set(to);
+        reachedFromTarget.set(to, side);
+        cameFrom[to] = next;
+        (side ? fromTarget : fromOrigin).add(to);
+      } else if (reachedFromTarget.get(to) != side) {
+        meet(side ? to : next, side ? next : to);
+        break;
+      }
+    }
+
+    visit(next);
+    return next;
+  }
+
+  /**
+   * Joins the two searches where they meet, reversing the path found from the target so that
+   * every vertex on the path points towards the origin.
+   *
+   * @param last the vertex reached from the origin
+   * @param first the neighboring vertex reached from the target
+   */
+  private void meet(int last, int first) {
+    int prev = last;
+    int v = first;
+    while (v != Graph.NO_VERTEX) {
+      int next = cameFrom[v];
+      cameFrom[v] = prev;
+      prev = v;
+      v = next;
+    }
+  }
+
+  @Override
+  protected boolean isWorklistEmpty() {
+    return fromOrigin.isEmpty() && fromTarget.isEmpty();
+  }
+}
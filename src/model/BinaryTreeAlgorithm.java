@@ -0,0 +1,26 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates mazes with the binary tree algorithm. Every cell but the first is joined to the cell
+ * to its left or the cell above it, so the top row and left column are straight passages.
+ */
+final class BinaryTreeAlgorithm extends RowAlgorithm {
+
+  @Override
+  void pass(Graph maze, long seed, Carver carver) {
+    int width = maze.getWidth();
+    SplittableRandom rand = new SplittableRandom(seed);
+
+    for (int v = 1; v < maze.numVertices(); v++) {
+      if (v < width) {
+        carver.carve(v, Direction.LEFT);
+      } else if (v % width == 0) {
+        carver.carve(v, Direction.UP);
+      } else {
+        carver.carve(v, rand.nextDouble() < maze.getBias() ? Direction.LEFT : Direction.UP);
+      }
+    }
+  }
+}
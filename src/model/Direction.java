@@ -5,6 +5,7 @@ import java.util.Map;
 
 public enum Direction {
   UP, RIGHT, DOWN, LEFT, UPRIGHT, DOWNRIGHT, DOWNLEFT, UPLEFT;
+  private static final Direction[] VALUES = values();
   private static final Map<Direction, Direction> opposites = new HashMap<>();
   static {
     opposites.put(UP, DOWN);
@@ -20,4 +21,30 @@ public enum Direction {
   public Direction opposite() {
     return opposites.get(this);
   }
+
+  /**
+   * Produces the bit standing for this direction in an edge bitmask, as produced by
+   * {@link Graph#getEdgeMask(int)}.
+   *
+   * @return the bit of this direction
+   */
+  public int bit() {
+    return 1 << ordinal();
+  }
+
+  /**
+   * Produces the direction of the lowest bit set in an edge bitmask. Together with clearing the
+   * lowest bit with {@code mask &= mask - 1}, this iterates over the edges of a vertex without
+   * allocating.
+   *
+   * @param mask the edge bitmask
+   * @return the direction of the lowest bit set
+   * @throws IllegalArgumentException if no direction is set in the mask
+   */
+  public static Direction lowestIn(int mask) throws IllegalArgumentException {
+    if ((mask & 0xFF) == 0) {
+      throw new IllegalArgumentException("No direction in mask.");
+    }
+    return VALUES[Integer.numberOfTrailingZeros(mask)];
+  }
 }
@@ -0,0 +1,173 @@
+package model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import structures.IntDisjointSet;
+
+/**
+ * Generates rectangular mazes one row at a time using Eller's algorithm, handing each finished row
+ * to a {@link RowConsumer}. Only the row being generated is kept, so memory is proportional to the
+ * width of the maze and the height is unbounded.
+ *
+ * <p>Rows use the same encoding as {@link Graph}: one byte per cell, with the bit
+ * {@code 1 << d.ordinal()} set if the cell has a passage in direction {@code d}. The bias maps onto
+ * the chance of joining horizontally adjacent cells, and its complement onto the chance of extra
+ * passages down, so as in {@link Graph.RectMazeBuilder#bias(double)} a higher bias makes longer
+ * horizontal corridors.
+ *
+ * <p>{@link MazeFile#writeRows(java.nio.file.Path, int, int, double, long)} gives a consumer that
+ * streams the rows into a maze file.
+ */
+public class EllerMazeGenerator {
+
+  private static final byte UP = (byte) (1 << Direction.UP.ordinal());
+  private static final byte RIGHT = (byte) (1 << Direction.RIGHT.ordinal());
+  private static final byte DOWN = (byte) (1 << Direction.DOWN.ordinal());
+  private static final byte LEFT = (byte) (1 << Direction.LEFT.ordinal());
+
+  private int height = 10;
+  private int width = 10;
+  private double bias = 0.5;
+  private Long seed = null;
+
+  /**
+   * Represents a destination for the rows of a maze, such as a file, a renderer or a network
+   * stream.
+   */
+  public interface RowConsumer {
+
+    /**
+     * Accepts the next row of the maze. The array is reused for the next row, so it must be copied
+     * if it is kept after this call returns.
+     *
+     * @param row the index of the row
+     * @param cells the passages of each cell in the row
+     * @throws IOException if the row cannot be written
+     */
+    void acceptRow(int row, byte[] cells) throws IOException;
+  }
+
+  public EllerMazeGenerator height(int height) {
+    this.height = height;
+    return this;
+  }
+
+  public EllerMazeGenerator width(int width) {
+    this.width = width;
+    return this;
+  }
+
+  public EllerMazeGenerator bias(double bias) {
+    this.bias = bias;
+    return this;
+  }
+
+  /**
+   * Sets the seed mazes are generated from. Generators with the same seed and settings generate
+   * the same maze.
+   *
+   * @param seed the seed
+   * @return this generator
+   */
+  public EllerMazeGenerator seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Generates a maze, handing each row to the given consumer from top to bottom.
+   *
+   * @param consumer the consumer of the rows
+   * @throws IllegalArgumentException if the consumer is null, the dimensions are not positive or
+   *     the bias is not between 0 and 1
+   * @throws IOException if the consumer cannot write a row
+   */
+  public void generate(RowConsumer consumer) throws IllegalArgumentException, IOException {
+    if (consumer == null) {
+      throw new IllegalArgumentException("Consumer cannot be null.");
+    }
+    if (height < 1 || width < 1) {
+      throw new IllegalArgumentException("Height and width must be positive.");
+    }
+    if (bias < 0 || bias > 1) {
+      throw new IllegalArgumentException("Bias must be between 0 and 1.");
+    }
+
+    Random rand = seed == null ? new Random() : new Random(seed);
+    byte[] cells = new byte[width];
+    int[] sets = new int[width];
+    int[] members = new int[width];
+    int[] chosen = new int[width];
+    boolean[] hasDown = new boolean[width];
+    boolean[] used = new boolean[width];
+    IntDisjointSet joined = new IntDisjointSet(width);
+    Arrays.fill(sets, Graph.NO_VERTEX);
+
+    for (int row = 0; row < height; row++) {
+      boolean last = row == height - 1;
+
+      // cells not joined to the row above start in sets of their own
+      Arrays.fill(used, false);
+      for (int j = 0; j < width; j++) {
+        if (sets[j] != Graph.NO_VERTEX) {
+          used[sets[j]] = true;
+        }
+      }
+      int free = 0;
+      for (int j = 0; j < width; j++) {
+        if (sets[j] == Graph.NO_VERTEX) {
+          while (used[free]) {
+            free++;
+          }
+          sets[j] = free++;
+        }
+      }
+
+      // join horizontally adjacent cells in different sets
+      joined.clear();
+      for (int j = 0; j < width - 1; j++) {
+        if ((last || rand.nextDouble() < bias) && joined.union(sets[j], sets[j + 1])) {
+          cells[j] |= RIGHT;
+          cells[j + 1] |= LEFT;
+        }
+      }
+
+      if (!last) {
+        // carve down at random, making sure every set has at least one passage down
+        Arrays.fill(members, 0);
+        Arrays.fill(hasDown, false);
+        for (int j = 0; j < width; j++) {
+          int set = joined.find(sets[j]);
+          sets[j] = set;
+          if (rand.nextInt(++members[set]) == 0) {
+            chosen[set] = j;
+          }
+          if (rand.nextDouble() < 1 - bias) {
+            cells[j] |= DOWN;
+            hasDown[set] = true;
+          }
+        }
+        for (int j = 0; j < width; j++) {
+          int set = sets[j];
+          if (!hasDown[set]) {
+            cells[chosen[set]] |= DOWN;
+            hasDown[set] = true;
+          }
+        }
+      }
+
+      consumer.acceptRow(row, cells);
+
+      for (int j = 0; j < width; j++) {
+        if ((cells[j] & DOWN) != 0) {
+          cells[j] = UP;
+        } else {
+          cells[j] = 0;
+          sets[j] = Graph.NO_VERTEX;
+        }
+      }
+    }
+  }
+}
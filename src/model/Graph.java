@@ -2,234 +2,871 @@ package model;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
-import structures.DisjointSet;
+import metrics.BuildEvent;
+import metrics.MazeMetrics;
+import metrics.SpanningTreeEvent;
+import structures.IntDisjointSet;
 
 /**
- * Represents a graph. Parameterizes by the type of vertices in the graph, K.
+ * Represents a graph stored compactly in primitive arrays. Vertices are identified by their int
+ * index, and the edges of each vertex are stored as a bitmask with one bit per {@link Direction}.
+ * The color of each vertex is stored as an index into the small palette of colors in use.
  *
- * @param <K> the type of vertices in the graph
+ * <p>A rectangular graph costs 2 bytes per vertex. Creating its minimum spanning tree needs about
+ * 13 more bytes per vertex while it runs (4 bytes for each of the two edges per vertex, and 5 for
+ * the disjoint set), and the tree it produces costs 4 bytes per vertex until it has been built.
+ * Building a maze of 10^7 cells therefore peaks at about 150MB of live heap.
  */
 public class Graph {
-  
-  private final List<Vertex> vertices;
-  
+
+  /**
+   * The index used to signal the absence of a vertex.
+   */
+  public static final int NO_VERTEX = -1;
+
+  /**
+   * The number of edges considered between reports of progress and checks for cancellation while
+   * creating a minimum spanning tree.
+   */
+  static final int PROGRESS_INTERVAL = 1 << 16;
+
+  static final Direction[] BACKWARD =
+    {Direction.LEFT, Direction.UP, Direction.UPLEFT, Direction.UPRIGHT};
+
+  /**
+   * The most vertices a graph can have.
+   */
+  public static final int MAX_VERTICES = Integer.MAX_VALUE / BACKWARD.length;
+
+  private final int height;
+  private final int width;
+  private final double bias;
+  private final byte[] edges;
+  private final byte[] colors;
+  private final List<Color> palette = new ArrayList<>();
+  private final int[] neighbors;
+  private long seed;
+
   /**
    * Constructs a new {@code Graph} object for a rectangular graph.
-   * 
+   *
    * @param height the height of the graph in number of nodes.
    * @param width the width of the graph in number of nodes.
+   * @param bias the bias towards horizontal edges, between 0 and 1
+   * @throws IllegalArgumentException if the dimensions are not positive or the graph would have
+   *     more than {@link #MAX_VERTICES} vertices
    */
-  private Graph(int height, int width, double bias) {
-    
-    int horizontalMax = (int) ((1 - bias) * 10000);
-    int verticalMax = (int) (bias * 10000);
-    vertices = new ArrayList<>(height * width);
-    Random rand = new Random();
-    
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        Vertex v = new Vertex(ColorScheme.BACKGROUND);
-        if (j > 0) {
-          v.addEdge(new DirectionalEdge(
-              vertices.get(i * width + j - 1), v, Direction.LEFT, rand.nextInt(horizontalMax)));
-        }
-        if (i > 0) {
-          v.addEdge(new DirectionalEdge(
-              vertices.get((i - 1) * width + j), v, Direction.UP, rand.nextInt(verticalMax)));
-        }
-        vertices.add(v);
-      }
+  Graph(int height, int width, double bias) throws IllegalArgumentException {
+    if (height < 1 || width < 1) {
+      throw new IllegalArgumentException("Height and width must be positive.");
     }
+    if ((long) height * width > MAX_VERTICES) {
+      throw new IllegalArgumentException("Graph cannot have more than " + MAX_VERTICES + " vertices.");
+    }
+    this.height = height;
+    this.width = width;
+    this.bias = bias;
+    this.edges = new byte[height * width];
+    this.colors = new byte[height * width];
+    this.neighbors = null;
+    palette.add(ColorScheme.BACKGROUND);
   }
-  
-  public List<Vertex> getVertices() {
-    return this.vertices;
-  }
-  
+
   /**
-   * Constructs a new {@code Graph} object for a hexagonal graph.
-   * 
-   * @param height the height of the graph in number of nodes.
-   * @param width the width of the graph in number of nodes.
+   * Constructs a new {@code Graph} object for a hexagonal graph. Hexagonal rows vary in width, so
+   * unlike rectangular graphs the neighbors of each vertex are kept in an explicit table.
+   *
+   * @param size the size of the graph in number of nodes.
+   * @param bias the bias towards horizontal edges, between 0 and 1
    */
   private Graph(int size, double bias) {
-    
-    int diagonalMax = (int) ((1 - bias) * 10000);
-    int verticalMax = (int) (bias * 10000);
-    vertices = new ArrayList<>(size * (1 + size) / 2 + 1);    
+    int rows = 1 + 4 * size;
+    int[] rowWidths = new int[rows];
+    int count = 0;
+    int rowWidth = 0;
+
+    for (int i = 0; i < rows; i++) {
+      if (i > rows - size || rowWidth == 1 + size) rowWidth--; else rowWidth++;
+      rowWidths[i] = rowWidth;
+      count += rowWidth;
+    }
+
+    this.height = rows;
+    this.width = 1 + size;
+    this.bias = bias;
+    this.edges = new byte[count];
+    this.colors = new byte[count];
+    this.neighbors = new int[count * Direction.values().length];
+    Arrays.fill(neighbors, NO_VERTEX);
+    palette.add(ColorScheme.BACKGROUND);
+
     int up = 0; int upLeft = 0; int upRight = 0;
-    int height = 1 + 4 * size;
-    int width = 0;
-    
-    for (int i = 0; i < height; i++) {
-      if (i > height - size || width == 1 + size) width--; else width++;
-      for (int j = 0; j < width; j++) {
-        Vertex v = new Vertex(Color.WHITE);
-        if (i > size || (j != 0 && j != width))
-          v.addEdge(new DirectionalEdge(vertices.get(up++), v, Direction.UP, verticalMax));
-        if (j != 0 || i >= height - size)
-          v.addEdge(new DirectionalEdge(vertices.get(upLeft++), v, Direction.UPLEFT, diagonalMax));
-        if (j != width || i >= height - size)
-          v.addEdge(new DirectionalEdge(vertices.get(upRight++), v, Direction.UPRIGHT, diagonalMax));
-        this.vertices.add(v);
+    int v = 0;
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < rowWidths[i]; j++, v++) {
+        if (i > size || (j != 0 && j != rowWidths[i]))
+          link(v, up++, Direction.UP);
+        if (j != 0 || i >= rows - size)
+          link(v, upLeft++, Direction.UPLEFT);
+        if (j != rowWidths[i] || i >= rows - size)
+          link(v, upRight++, Direction.UPRIGHT);
       }
     }
   }
 
   /**
-   * Produces the vertex in the graph at the given index.
-   * 
-   * @param index
-   * @return
-   * @throws IllegalArgumentException
+   * Constructs a new {@code Graph} object sharing the edges of the given graph, with every vertex
+   * colored as background.
+   *
+   * @param shared the graph whose edges are shared
    */
-  public Vertex getVertexAt(int index) throws IllegalArgumentException {
-    try {
-      return vertices.get(index);
-    } catch (IndexOutOfBoundsException e) {
-      throw new IllegalArgumentException("Invalid index.");
-    }
+  private Graph(Graph shared) {
+    this.height = shared.height;
+    this.width = shared.width;
+    this.bias = shared.bias;
+    this.edges = shared.edges;
+    this.colors = new byte[shared.colors.length];
+    this.neighbors = shared.neighbors;
+    this.seed = shared.seed;
+    palette.add(ColorScheme.BACKGROUND);
+  }
+
+  /**
+   * Records two vertices of a hexagonal graph as neighbors.
+   *
+   * @param from the vertex the neighbor is recorded for
+   * @param to the neighboring vertex
+   * @param d the direction the neighbor is in from the first vertex
+   */
+  private void link(int from, int to, Direction d) {
+    neighbors[from * Direction.values().length + d.ordinal()] = to;
+    neighbors[to * Direction.values().length + d.opposite().ordinal()] = from;
   }
-  
+
   /**
    * Gets the number of vertices in this graph.
-   * 
+   *
    * @return the number of vertices in this graph
    */
   public int numVertices() {
-    return vertices.size();
+    return edges.length;
+  }
+
+  /**
+   * Gets the height of this graph in number of nodes.
+   *
+   * @return the height of this graph
+   */
+  public int getHeight() {
+    return height;
   }
-  
+
   /**
-   * Removes all edges from every vertex in this graph.
+   * Gets the width of this graph in number of nodes.
+   *
+   * @return the width of this graph
    */
-  private void removeAllEdges() {
-    for (Vertex vertex : vertices) {
-      vertex.removeAllEdges();
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Gets the bias of this graph towards horizontal edges.
+   *
+   * @return the bias, between 0 and 1
+   */
+  public double getBias() {
+    return bias;
+  }
+
+  /**
+   * Gets the seed the edges of this graph were generated from.
+   *
+   * @return the seed, or 0 if the graph was not generated from a seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Sets the seed the edges of this graph were generated from.
+   *
+   * @param seed the seed
+   */
+  void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Produces a graph with the same edges as this graph but colors of its own, so any number of
+   * games can be played on one maze at once while costing 1 byte per vertex each. The edges are
+   * shared rather than copied, so this graph must be fully built, and no edges may be added to
+   * either graph afterwards. Graphs sharing edges may be read from any thread once they have been
+   * safely published.
+   *
+   * @return the new graph
+   */
+  public Graph share() {
+    return new Graph(this);
+  }
+
+  /**
+   * Produces the array of edge bitmasks of this graph, one per vertex with the bit
+   * {@code 1 << d.ordinal()} set if the vertex has an edge pointing in direction {@code d}. The
+   * array is not a copy, so changes to it change this graph.
+   *
+   * @return the edge bitmasks of this graph
+   */
+  byte[] edgeMasks() {
+    return edges;
+  }
+
+  /**
+   * Determines whether this graph is hexagonal rather than rectangular.
+   *
+   * @return true if this graph is hexagonal, false if it is rectangular
+   */
+  boolean isHex() {
+    return neighbors != null;
+  }
+
+  /**
+   * Produces the edge bitmask of the given vertex, with the bit {@link Direction#bit()} set for
+   * each direction the vertex has an edge pointing in. The edges can be iterated over without
+   * allocating:
+   *
+   * <pre>
+   * for (int m = graph.getEdgeMask(v); m != 0; m &amp;= m - 1) {
+   *   Direction d = Direction.lowestIn(m);
+   *   ...
+   * }
+   * </pre>
+   *
+   * @param vertex the index of the vertex
+   * @return the edge bitmask of the vertex
+   * @throws IllegalArgumentException if the index is invalid
+   */
+  public int getEdgeMask(int vertex) throws IllegalArgumentException {
+    checkVertex(vertex);
+    return edges[vertex] & 0xFF;
+  }
+
+  /**
+   * Determines whether the given vertex has an edge pointing in a given direction.
+   *
+   * @param vertex the index of the vertex
+   * @param d the direction
+   * @return true if the vertex has an edge pointing in the given direction, false if not
+   * @throws IllegalArgumentException if the index is invalid
+   */
+  public boolean hasEdgePointingIn(int vertex, Direction d) throws IllegalArgumentException {
+    checkVertex(vertex);
+    return (edges[vertex] & d.bit()) != 0;
+  }
+
+  /**
+   * Produces the vertex connected to the given vertex by an edge in a given direction.
+   *
+   * @param vertex the index of the vertex
+   * @param d the direction the neighbor is in
+   * @return the index of the neighboring vertex
+   * @throws IllegalArgumentException if the index is invalid or the vertex has no edge in the
+   *     given direction
+   */
+  public int getNeighborIn(int vertex, Direction d) throws IllegalArgumentException {
+    if (!hasEdgePointingIn(vertex, d)) {
+      throw new IllegalArgumentException("Vertex has no neighbor in this direction.");
     }
+    return adjacentIn(vertex, d);
   }
 
   /**
-   * Produces a list of all of the edges in this graph.
-   * 
-   * @return a list of every edge in this graph.
+   * Adds an edge between the given vertex and the vertex adjacent to it in the given direction.
+   *
+   * @param vertex the index of the vertex
+   * @param d the direction the edge points in
+   * @throws IllegalArgumentException if the index is invalid or there is no vertex in the given
+   *     direction
    */
-  private List<DirectionalEdge> getAllEdges() {
-    List<DirectionalEdge> listOfEdges = new ArrayList<>();
-    for (Vertex vertex : vertices) {
-      listOfEdges.addAll(vertex.getAllEdges());
+  public void addEdge(int vertex, Direction d) throws IllegalArgumentException {
+    checkVertex(vertex);
+    int to = adjacentIn(vertex, d);
+    if (to == NO_VERTEX) {
+      throw new IllegalArgumentException("No vertex in this direction.");
     }
-    return listOfEdges;
+    edges[vertex] |= 1 << d.ordinal();
+    edges[to] |= 1 << d.opposite().ordinal();
   }
-  
+
   /**
-   * Produces a minimum spanning tree for this graph using Kruskal's algorithm.
-   * 
-   * @return a list of edges in a minimum spanning tree of this graph
+   * Produces the vertex adjacent to the given vertex in a given direction, whether or not an edge
+   * connects the two.
+   *
+   * @param vertex the index of the vertex
+   * @param d the direction
+   * @return the index of the adjacent vertex, or {@link #NO_VERTEX} if there is none
    */
-  public List<DirectionalEdge> createMinimumSpanningTree() {
-    List<DirectionalEdge> edgesInTree = new ArrayList<>();
-    List<DirectionalEdge> worklist = getAllEdges();
-    DisjointSet<Vertex> disjSet = new DisjointSet<>(vertices);
-    
-    worklist.sort(new DirectionalEdge.WeightComparator());
-    
-    while (edgesInTree.size() < numVertices() - 1) {
-      DirectionalEdge e = worklist.remove(0);
-      Vertex from = e.comesFrom();
-      Vertex to = e.goesTo();
-      if (!disjSet.find(from).equals(disjSet.find(to))) {
-        edgesInTree.add(e);
-        disjSet.union(from, to);
+  int adjacentIn(int vertex, Direction d) {
+    if (neighbors != null) {
+      return neighbors[vertex * Direction.values().length + d.ordinal()];
+    }
+
+    switch (d) {
+    case UP:
+      return vertex >= width ? vertex - width : NO_VERTEX;
+    case DOWN:
+      return vertex < edges.length - width ? vertex + width : NO_VERTEX;
+    case LEFT:
+      return vertex % width != 0 ? vertex - 1 : NO_VERTEX;
+    case RIGHT:
+      return vertex % width != width - 1 ? vertex + 1 : NO_VERTEX;
+    default:
+      return NO_VERTEX;
+    }
+  }
+
+  /**
+   * Sets the color of the given vertex to a given color.
+   *
+   * @param vertex the index of the vertex
+   * @param c the color to set the vertex to
+   * @throws IllegalArgumentException if the index is invalid or the given color is null
+   */
+  public void setColor(int vertex, Color c) throws IllegalArgumentException {
+    checkVertex(vertex);
+    if (c == null) {
+      throw new IllegalArgumentException("Color cannot be null.");
+    }
+    int index = palette.indexOf(c);
+    if (index < 0) {
+      if (palette.size() > 0xFF) {
+        throw new IllegalArgumentException("Too many colors in use.");
       }
+      index = palette.size();
+      palette.add(c);
     }
-    
-    return edgesInTree;
+    colors[vertex] = (byte) index;
   }
-  
+
+  /**
+   * Gets the color of the given vertex.
+   *
+   * @param vertex the index of the vertex
+   * @return the color of the vertex
+   * @throws IllegalArgumentException if the index is invalid
+   */
+  public Color getColor(int vertex) throws IllegalArgumentException {
+    checkVertex(vertex);
+    return palette.get(colors[vertex] & 0xFF);
+  }
+
+  /**
+   * Checks that the given index is the index of a vertex in this graph.
+   *
+   * @param vertex the index
+   * @throws IllegalArgumentException if the index is invalid
+   */
+  private void checkVertex(int vertex) throws IllegalArgumentException {
+    if (vertex < 0 || vertex >= edges.length) {
+      throw new IllegalArgumentException("Invalid index.");
+    }
+  }
+
+  /**
+   * Produces the vertex an edge produced by {@link #createMinimumSpanningTree()} comes from.
+   *
+   * @param edge the edge
+   * @return the index of the vertex the edge comes from
+   */
+  public int edgeComesFrom(int edge) {
+    return edge / BACKWARD.length;
+  }
+
+  /**
+   * Produces the direction an edge produced by {@link #createMinimumSpanningTree()} points in.
+   *
+   * @param edge the edge
+   * @return the direction the edge points in
+   */
+  public Direction edgePointsIn(int edge) {
+    return BACKWARD[edge % BACKWARD.length];
+  }
+
+  /**
+   * Produces the vertex an edge produced by {@link #createMinimumSpanningTree()} goes to.
+   *
+   * @param edge the edge
+   * @return the index of the vertex the edge goes to
+   */
+  public int edgeGoesTo(int edge) {
+    return adjacentIn(edgeComesFrom(edge), edgePointsIn(edge));
+  }
+
+  /**
+   * Produces the edge joining the given vertex to the vertex adjacent to it in a given direction,
+   * encoded as the edges produced by {@link #createMinimumSpanningTree()} are.
+   *
+   * @param vertex the index of the vertex
+   * @param d the direction of the adjacent vertex
+   * @return the edge
+   */
+  int edgeBetween(int vertex, Direction d) {
+    for (int i = 0; i < BACKWARD.length; i++) {
+      if (BACKWARD[i] == d) {
+        return vertex * BACKWARD.length + i;
+      }
+    }
+    int to = adjacentIn(vertex, d);
+    Direction back = d.opposite();
+    for (int i = 0; i < BACKWARD.length; i++) {
+      if (BACKWARD[i] == back) {
+        return to * BACKWARD.length + i;
+      }
+    }
+    return NO_VERTEX;
+  }
+
+  /**
+   * Produces the random weight of the given edge, the same one it has in
+   * {@link #createMinimumSpanningTree(long, IntConsumer)} for the given seed.
+   *
+   * @param seed the seed for the weights
+   * @param edge the edge
+   * @return the weight of the edge
+   */
+  int weigh(long seed, int edge) {
+    double share = edgePointsIn(edge) == Direction.UP ? bias : 1 - bias;
+    return weigh(seed, edge, Math.max(1, (int) (share * 10000)));
+  }
+
+  /**
+   * Produces the weight of the given edge, spread evenly over [0, max). Each edge gets its own
+   * stream of randomness split from the seed by its index, so no generator state is shared between
+   * threads and the weight of an edge does not depend on the order edges are weighed in.
+   *
+   * @param seed the seed for the edge weights
+   * @param edge the edge
+   * @param max the bound on the weight
+   * @return the weight of the edge
+   */
+  private static int weigh(long seed, int edge, int max) {
+    long z = seed + (edge + 1L) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    z = z ^ (z >>> 33);
+    return (int) (((z >>> 32) * max) >>> 32);
+  }
+
+  /**
+   * Weighs every edge that could be added between the given vertices randomly according to the
+   * bias of this graph. Each pair of adjacent vertices produces one edge. The weight of each edge
+   * is derived from the seed and the index of the edge alone, so repeated calls with the same seed
+   * weigh every edge the same, however the vertices are split into ranges.
+   *
+   * <p>If no array of sorted edges is given, counts the edges of each weight w into
+   * {@code starts[w + 1]}. Otherwise places each edge into {@code sorted} at the index
+   * {@code starts[w]}, incrementing it.
+   *
+   * @param seed the seed for the weights
+   * @param lo the first vertex
+   * @param hi one past the last vertex
+   * @param starts the counts or indices of each weight
+   * @param sorted the array to place the edges in, or null to count them
+   */
+  private void weighEdges(long seed, int lo, int hi, int[] starts, int[] sorted) {
+    int horizontalMax = Math.max(1, (int) ((1 - bias) * 10000));
+    int verticalMax = Math.max(1, (int) (bias * 10000));
+
+    for (int v = lo; v < hi; v++) {
+      for (int i = 0; i < BACKWARD.length; i++) {
+        // backward edges go to lower indices, so this also skips edges with no vertex at the end
+        if (adjacentIn(v, BACKWARD[i]) >= lo) {
+          int edge = v * BACKWARD.length + i;
+          int weight = weigh(seed, edge,
+              BACKWARD[i] == Direction.UP ? verticalMax : horizontalMax);
+          if (sorted == null) {
+            starts[weight + 1]++;
+          } else {
+            sorted[starts[weight]++] = edge;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Produces a minimum spanning tree for this graph using Kruskal's algorithm. Weights are
+   * bounded, so the edges are ordered with a counting sort rather than a comparison sort.
+   *
+   * @return the edges in a minimum spanning tree of this graph, in the order they were accepted
+   */
+  public int[] createMinimumSpanningTree() {
+    return createMinimumSpanningTree(null);
+  }
+
+  /**
+   * Produces a minimum spanning tree for this graph using Kruskal's algorithm, reporting the number
+   * of edges accepted so far as it goes. A tree is complete at {@code numVertices() - 1} edges.
+   * Gives up if the calling thread is interrupted.
+   *
+   * @param progress the listener for the number of edges accepted, or null for no reports
+   * @return the edges in a minimum spanning tree of this graph, in the order they were accepted
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  public int[] createMinimumSpanningTree(IntConsumer progress) throws CancellationException {
+    return createMinimumSpanningTree(new Random().nextLong(), progress);
+  }
+
+  /**
+   * Produces a minimum spanning tree for this graph using Kruskal's algorithm with edge weights
+   * drawn from the given seed, so the same seed always produces the same tree. Ties between equal
+   * weights are broken by edge index, so the tree is the same one {@link StripKruskalUtil}
+   * produces for the seed on any number of threads, though the edges are in a different order.
+   * Reports the number of edges accepted so far as it goes, and gives up if the calling thread is
+   * interrupted.
+   *
+   * @param seed the seed for the edge weights
+   * @param progress the listener for the number of edges accepted, or null for no reports
+   * @return the edges in a minimum spanning tree of this graph, in the order they were accepted
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  public int[] createMinimumSpanningTree(long seed, IntConsumer progress)
+      throws CancellationException {
+    SpanningTreeEvent event = new SpanningTreeEvent();
+    event.begin();
+    int[] tree = createSpanningForest(seed, 0, numVertices(), progress);
+    if (event.shouldCommit()) {
+      event.algorithm = "kruskal";
+      event.cells = numVertices();
+      event.threads = 1;
+      event.commit();
+    }
+    return tree;
+  }
+
+  /**
+   * Produces a minimum spanning forest of the subgraph between the given vertices using Kruskal's
+   * algorithm, considering only the edges with both ends in the range. Reports the number of edges
+   * accepted so far as it goes, and gives up if the calling thread is interrupted.
+   *
+   * <p>Needs 13 bytes per vertex in the range while it runs.
+   *
+   * @param seed the seed for the edge weights
+   * @param lo the first vertex
+   * @param hi one past the last vertex
+   * @param progress the listener for the number of edges accepted, or null for no reports
+   * @return the edges in the forest, in the order they were accepted
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  int[] createSpanningForest(long seed, int lo, int hi, IntConsumer progress)
+      throws CancellationException {
+    int[] starts = new int[10002];
+    weighEdges(seed, lo, hi, starts, null);
+    reportProgress(progress, 0);
+    for (int w = 1; w < starts.length; w++) {
+      starts[w] += starts[w - 1];
+    }
+    int[] worklist = new int[starts[starts.length - 1]];
+    weighEdges(seed, lo, hi, starts, worklist);
+    reportProgress(progress, 0);
+
+    // accepted edges are moved to the front of the worklist, behind the cursor
+    int size = 0;
+    IntDisjointSet disjSet = new IntDisjointSet(hi - lo);
+
+    for (int cursor = 0; size < hi - lo - 1 && cursor < worklist.length; cursor++) {
+      int e = worklist[cursor];
+      int from = edgeComesFrom(e);
+      if (disjSet.union(from - lo, adjacentIn(from, edgePointsIn(e)) - lo)) {
+        worklist[size++] = e;
+      }
+      if (cursor % PROGRESS_INTERVAL == 0) {
+        checkCancelled();
+        if (progress != null) {
+          progress.accept(size);
+        }
+      }
+    }
+    if (progress != null) {
+      progress.accept(size);
+    }
+    return Arrays.copyOf(worklist, size);
+  }
+
+  /**
+   * Checks whether the calling thread has been interrupted, clearing its interrupt if so.
+   *
+   * @throws CancellationException if the calling thread has been interrupted
+   */
+  static void checkCancelled() throws CancellationException {
+    if (Thread.interrupted()) {
+      throw new CancellationException("Maze generation cancelled.");
+    }
+  }
+
+  /**
+   * Checks whether the calling thread has been interrupted, then reports the number of edges
+   * generated so far.
+   *
+   * @param progress the listener for the number of edges, or null for no reports
+   * @param edges the number of edges generated so far
+   * @throws CancellationException if the calling thread has been interrupted
+   */
+  static void reportProgress(IntConsumer progress, int edges) throws CancellationException {
+    checkCancelled();
+    if (progress != null) {
+      progress.accept(edges);
+    }
+  }
+
   public static RectMazeBuilder rectMazeBuilder() {
     return new RectMazeBuilder();
   }
-  
+
   public static HexMazeBuilder hexMazeBuilder() {
     return new HexMazeBuilder();
   }
-  
+
   public static abstract class Builder {
     public abstract boolean hasNextBuild();
-    public abstract void nextBuild();
+
+    /**
+     * Adds the next edge of the maze being built.
+     *
+     * @return the edge added, which can be decoded with {@link Graph#edgeComesFrom(int)} and
+     *     {@link Graph#edgeGoesTo(int)}
+     * @throws IllegalStateException if there is no next edge
+     */
+    public abstract int nextBuild() throws IllegalStateException;
     public abstract Graph buildIncrementally();
     public abstract Graph buildInstant();
   }
-  
+
   public static class RectMazeBuilder extends Builder {
-    
+
     private int height = 10;
     private int width = 10;
     private double bias = 0.5;
-    private List<DirectionalEdge> mst;
-    
+    private ForkJoinPool pool = null;
+    private IntConsumer progress = null;
+    private Long seed = null;
+    private MazeAlgorithm algorithm = null;
+    private Graph graph;
+    private int[] mst;
+    private int built;
+    private volatile MazeStats stats;
+
     public RectMazeBuilder height(int height) {
       this.height = height;
       return this;
     }
-    
+
     public RectMazeBuilder width(int width) {
       this.width = width;
       return this;
     }
-    
+
     public RectMazeBuilder bias(double bias) {
       this.bias = bias;
       return this;
     }
-    
+
+    /**
+     * Sets the pool to generate mazes in parallel on. The rows are split into one strip per worker,
+     * each strip is generated with Kruskal's algorithm, and the strips are stitched together. The
+     * edges are built strip by strip rather than in weight order, but the maze for a given seed is
+     * the same. On a single worker this is Kruskal's algorithm, so a pool never costs more than
+     * generating on the calling thread; {@code ParallelGenerationBenchmark} measures the speedup.
+     *
+     * @param pool the pool, or null to generate mazes on the calling thread
+     * @return this builder
+     */
+    public RectMazeBuilder pool(ForkJoinPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * Sets the seed the maze is generated from. Builders with the same seed and settings generate
+     * the same maze, whether it is generated on the calling thread or on a pool of any size.
+     *
+     * @param seed the seed
+     * @return this builder
+     */
+    public RectMazeBuilder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets the algorithm the maze is generated with. Without one, the maze is a minimum spanning
+     * tree over random weights, generated with Kruskal's algorithm, on the pool in strips if one
+     * is set.
+     *
+     * @param algorithm the algorithm, or null for the default
+     * @return this builder
+     */
+    public RectMazeBuilder algorithm(MazeAlgorithm algorithm) {
+      this.algorithm = algorithm;
+      return this;
+    }
+
+    /**
+     * Sets the listener for the number of edges accepted into the maze while it is being
+     * generated. Generation is complete at one edge fewer than the number of cells. Reports are
+     * made on the generating thread.
+     *
+     * @param progress the listener, or null for no reports
+     * @return this builder
+     */
+    public RectMazeBuilder progress(IntConsumer progress) {
+      this.progress = progress;
+      return this;
+    }
+
     public boolean hasNextBuild() {
-      return mst.size() > 0;
+      return built < mst.length;
     }
-    
-    public void nextBuild() throws IllegalStateException {
-      if (mst.size() <= 0) {
+
+    public int nextBuild() throws IllegalStateException {
+      if (built >= mst.length) {
         throw new IllegalStateException("No next build.");
       }
-      DirectionalEdge next = mst.remove(0);
-      next.comesFrom().addEdge(next);
-      next.goesTo().addEdge(new DirectionalEdge(next.comesFrom(), next.goesTo(), next.pointsIn().opposite()));
+      int next = mst[built++];
+      graph.addEdge(graph.edgeComesFrom(next), graph.edgePointsIn(next));
+      return next;
     }
-    
-    public Graph buildIncrementally() {
-      Graph g = new Graph(height, width, bias);
-      mst = g.createMinimumSpanningTree();
-      g.removeAllEdges();
-      
-      return g;
+
+    /**
+     * Generates the maze, ready to be built one edge at a time. Gives up if the calling thread is
+     * interrupted while the maze is being generated.
+     *
+     * @return the graph of the maze, with no edges yet
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public Graph buildIncrementally() throws CancellationException {
+      return generate(false);
     }
 
-    public Graph buildInstant() {
-      Graph g = new Graph(height, width, bias);
-      mst = g.createMinimumSpanningTree();
-      g.removeAllEdges();
+    /**
+     * Generates the maze and carves every edge into it at once. An algorithm set with
+     * {@link #algorithm(MazeAlgorithm)} carves straight into the maze, without keeping its edges.
+     *
+     * @return the graph of the maze
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public Graph buildInstant() throws CancellationException {
+      Graph g = generate(algorithm != null);
+      BuildEvent event = new BuildEvent();
+      event.begin();
       while (hasNextBuild()) {
         nextBuild();
       }
+      if (event.shouldCommit()) {
+        event.phase = "carve";
+        event.cells = g.numVertices();
+        event.commit();
+      }
       return g;
     }
-    
+
+    /**
+     * Generates the maze, either keeping its edges to build later or carving them at once.
+     *
+     * @param carve whether the algorithm should carve the maze at once
+     * @return the graph of the maze
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    private Graph generate(boolean carve) throws CancellationException {
+      BuildEvent event = new BuildEvent();
+      event.begin();
+      long start = System.nanoTime();
+      Graph g = new Graph(height, width, bias);
+      long s = seed == null ? new Random().nextLong() : seed;
+      if (carve) {
+        algorithm.carve(g, s, progress);
+        mst = new int[0];
+      } else if (algorithm != null) {
+        mst = algorithm.generate(g, s, progress);
+      } else if (pool == null) {
+        mst = g.createMinimumSpanningTree(s, progress);
+      } else {
+        mst = StripKruskalUtil.createMinimumSpanningTree(g, s, pool, progress);
+      }
+      g.setSeed(s);
+      graph = g;
+      built = 0;
+      stats = null;
+
+      MazeMetrics.get().recordGeneration(g.numVertices(), System.nanoTime() - start);
+      if (event.shouldCommit()) {
+        event.phase = "generate";
+        event.cells = g.numVertices();
+        event.commit();
+      }
+
+      return graph;
+    }
+
+    /**
+     * Produces the graph being built.
+     *
+     * @return the graph, or null if building has not started
+     */
+    public Graph getGraph() {
+      return graph;
+    }
+
+    /**
+     * Produces the edge bitmasks the graph being built will have once every edge is added,
+     * leaving the graph itself as it is.
+     *
+     * @return the edge bitmask of each vertex of the finished graph
+     */
+    byte[] finishedEdgeMasks() {
+      byte[] masks = graph.edgeMasks().clone();
+      for (int i = built; i < mst.length; i++) {
+        int from = graph.edgeComesFrom(mst[i]);
+        Direction d = graph.edgePointsIn(mst[i]);
+        masks[from] |= 1 << d.ordinal();
+        masks[graph.adjacentIn(from, d)] |= 1 << d.opposite().ordinal();
+      }
+      return masks;
+    }
+
+    /**
+     * Produces the statistics the graph being built will have once every edge is added, with the
+     * start and target in opposite corners. Takes O(V) time the first time it is called for each
+     * maze generated, and O(1) after, so it can be called ahead of time off the event thread.
+     *
+     * @return the statistics of the finished graph
+     */
+    MazeStats finishedStats() {
+      if (stats == null) {
+        stats = MazeStats.of(graph, finishedEdgeMasks(), false);
+      }
+      return stats;
+    }
+
   }
-  
+
   public static class HexMazeBuilder extends Builder {
-    
+
     private int size = 1;
     private double bias = 0.5;
-    
+
     public HexMazeBuilder size(int size) {
       this.size = size;
       return this;
     }
-    
+
     public HexMazeBuilder bias(double bias) {
       this.bias = bias;
       return this;
@@ -246,9 +883,9 @@ public class Graph {
     }
 
     @Override
-    public void nextBuild() {
+    public int nextBuild() {
       // TODO Auto-generated method stub
-      
+      return 0;
     }
 
     @Override
@@ -262,6 +899,6 @@ public class Graph {
       // TODO Auto-generated method stub
       return null;
     }
-    
+
   }
 }
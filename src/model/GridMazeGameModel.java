@@ -0,0 +1,67 @@
+package model;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents the model for a maze game played on a rectangular grid of cells. Provides the
+ * operations that rely on the layout of the grid, on top of those of every maze game.
+ */
+public interface GridMazeGameModel extends MazeGameModel {
+  
+  @Override
+  public Graph.RectMazeBuilder startGame();
+  
+  /**
+   * Generates a maze for a new game without changing the state of this game, so it can run on any
+   * thread. Gives up if the calling thread is interrupted.
+   * 
+   * @param progress the listener for the number of edges accepted into the maze so far, or null
+   *     for no reports
+   * @return the builder of the generated maze
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  public Graph.RectMazeBuilder prepareGame(IntConsumer progress) throws CancellationException;
+  
+  /**
+   * Starts the maze game with a maze generated by {@link #prepareGame(IntConsumer)}, putting the
+   * current position at the start.
+   * 
+   * @param prepared the builder of the generated maze
+   * @return the given builder
+   * @throws IllegalArgumentException if the builder is null or has not generated a maze
+   */
+  public Graph.RectMazeBuilder startGame(Graph.RectMazeBuilder prepared)
+      throws IllegalArgumentException;
+  
+  /**
+   * Sets the algorithm the next games generate their mazes with. Takes effect from the next game.
+   * 
+   * @param algorithm the algorithm, or null for the default
+   */
+  public void setAlgorithm(MazeAlgorithm algorithm);
+  
+  /**
+   * Starts an A* search from the start of the maze to the target, estimating the distance left
+   * with the Manhattan distance.
+   * 
+   * @return the search
+   * @throws IllegalStateException if a search cannot be started now
+   */
+  public SearchUtil aStar() throws IllegalStateException;
+  
+  /**
+   * Starts a breadth first search outwards from both the start of the maze and the target.
+   * 
+   * @return the search
+   * @throws IllegalStateException if a search cannot be started now
+   */
+  public SearchUtil bidirectionalBfs() throws IllegalStateException;
+  
+  /**
+   * Produces the solution statistics of the maze of the current game.
+   * 
+   * @return the statistics, or null if no game has started
+   */
+  public MazeStats getStats();
+}
@@ -1,12 +1,11 @@
 package model;
 
-import java.util.List;
-
 import model.Graph.Builder;
 
 public class HexMazeGameModel implements MazeGameModel {
   
-  public List<Vertex> temp() {
+  @Override
+  public Graph getMaze() {
     return null;
   }
 
@@ -29,9 +28,9 @@ public class HexMazeGameModel implements MazeGameModel {
   }
 
   @Override
-  public Vertex getCurrentVertex() {
+  public int getCurrentVertex() {
     // TODO Auto-generated method stub
-    return null;
+    return 0;
   }
 
   @Override
@@ -65,9 +64,9 @@ public class HexMazeGameModel implements MazeGameModel {
   }
 
   @Override
-  public Vertex getTargetVertex() {
+  public int getTargetVertex() {
     // TODO Auto-generated method stub
-    return null;
+    return 0;
   }
 
   @Override
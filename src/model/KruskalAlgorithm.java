@@ -0,0 +1,14 @@
+package model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Generates mazes with Kruskal's algorithm, as {@link Graph#createMinimumSpanningTree()} does.
+ */
+final class KruskalAlgorithm implements MazeAlgorithm {
+
+  @Override
+  public int[] generate(Graph maze, long seed, IntConsumer progress) {
+    return maze.createMinimumSpanningTree(seed, progress);
+  }
+}
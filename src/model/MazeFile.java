@@ -0,0 +1,446 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a maze saved in a compact binary file, mapped into memory so its passages can be
+ * queried straight from the file without loading it. The same encoding can be kept in memory as a
+ * byte array, such as to send a maze over the network.
+ *
+ * <p>The file starts with a 32 byte big-endian header: the magic number {@code "MAZE"}, a one byte
+ * version, a one byte topology (0 for rectangular, 1 for hexagonal), the number of bits per cell
+ * as a short, the height and width as ints, the bias as a double and the seed as a long. The cells
+ * follow in row order, packed from the lowest bit of each byte up. A rectangular cell takes 2 bits:
+ * the lower set if it has a passage right, the upper if it has a passage down. Passages left and
+ * up are the passages right and down of the neighboring cells. Hexagonal cells are reserved 4 bits
+ * for their passages right, down, down-right and down-left, but hexagonal mazes cannot be saved
+ * yet.
+ *
+ * <p>A maze of 10^8 cells takes 25MB, and is read and written with no allocation per cell.
+ */
+public final class MazeFile {
+
+  private static final int MAGIC = 0x4D415A45;
+  private static final byte VERSION = 1;
+  private static final byte RECTANGULAR = 0;
+  private static final byte HEXAGONAL = 1;
+  private static final short RECT_BITS = 2;
+  private static final int HEADER_SIZE = 32;
+  private static final int CHUNK_SIZE = 1 << 16;
+  private static final int RIGHT_BIT = Direction.RIGHT.ordinal();
+  private static final int DOWN_BIT = Direction.DOWN.ordinal();
+  private static final int LEFT_BIT = Direction.LEFT.ordinal();
+  private static final int UP_BIT = Direction.UP.ordinal();
+
+  private final ByteBuffer buffer;
+  private final int height;
+  private final int width;
+  private final double bias;
+  private final long seed;
+
+  private MazeFile(ByteBuffer buffer, int height, int width, double bias, long seed) {
+    this.buffer = buffer;
+    this.height = height;
+    this.width = width;
+    this.bias = bias;
+    this.seed = seed;
+  }
+
+  /**
+   * Writes the given maze to a file, replacing the file if it exists.
+   *
+   * @param maze the maze
+   * @param file the file
+   * @throws IllegalArgumentException if the maze or file is null, or the maze is hexagonal
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(Graph maze, Path file) throws IllegalArgumentException, IOException {
+    if (maze == null || file == null) {
+      throw new IllegalArgumentException("Maze and file cannot be null.");
+    }
+    checkWritable(maze);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      encode(maze, channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(maze.numVertices())));
+    }
+  }
+
+  /**
+   * Encodes the given maze into a new array in the format of a maze file.
+   *
+   * @param maze the maze
+   * @return the encoded maze
+   * @throws IllegalArgumentException if the maze is null or hexagonal, or is too large to encode
+   *     in an array
+   */
+  public static byte[] toBytes(Graph maze) throws IllegalArgumentException {
+    checkWritable(maze);
+    long size = fileSize(maze.numVertices());
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Maze is too large to encode in an array.");
+    }
+    byte[] bytes = new byte[(int) size];
+    encode(maze, ByteBuffer.wrap(bytes));
+    return bytes;
+  }
+
+  /**
+   * Checks that the given maze can be encoded.
+   *
+   * @param maze the maze
+   * @throws IllegalArgumentException if the maze is null or hexagonal
+   */
+  private static void checkWritable(Graph maze) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null.");
+    }
+    if (maze.isHex()) {
+      throw new IllegalArgumentException("Hexagonal mazes cannot be saved yet.");
+    }
+  }
+
+  /**
+   * Encodes the given maze into a buffer with room for it.
+   *
+   * @param maze the maze, which must be rectangular
+   * @param out the buffer
+   */
+  private static void encode(Graph maze, ByteBuffer out) {
+    int n = maze.numVertices();
+    byte[] masks = maze.edgeMasks();
+    out.put(header(maze.getHeight(), maze.getWidth(), maze.getBias(), maze.getSeed()));
+
+    for (int v = 0; v < n; v += 4) {
+      int packed = 0;
+      for (int k = 0; k < 4 && v + k < n; k++) {
+        int mask = masks[v + k];
+        int cell = ((mask >> RIGHT_BIT) & 1) | (((mask >> DOWN_BIT) & 1) << 1);
+        packed |= cell << (k << 1);
+      }
+      out.put((byte) packed);
+    }
+  }
+
+  /**
+   * Produces the header of a rectangular maze.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @return the header, ready to be read
+   */
+  private static ByteBuffer header(int height, int width, double bias, long seed) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).put(VERSION).put(RECTANGULAR).putShort(RECT_BITS)
+        .putInt(height).putInt(width).putDouble(bias).putLong(seed);
+    return header.flip();
+  }
+
+  /**
+   * Starts writing a maze to a file one row at a time, replacing the file if it exists. Rows are
+   * packed and written as they arrive, so a maze can be saved without ever being held in memory,
+   * such as one generated by {@link EllerMazeGenerator}. The file is complete once every row has
+   * been written and the writer closed.
+   *
+   * @param file the file
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @return the writer for the rows
+   * @throws IllegalArgumentException if the file is null, the dimensions are not positive or too
+   *     large to read back, or the bias is not between 0 and 1
+   * @throws IOException if the file cannot be written
+   */
+  public static RowWriter writeRows(Path file, int height, int width, double bias, long seed)
+      throws IllegalArgumentException, IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+    if (height < 1 || width < 1 || (long) height * width > Graph.MAX_VERTICES) {
+      throw new IllegalArgumentException("Invalid maze dimensions.");
+    }
+    if (!(bias >= 0 && bias <= 1)) {
+      throw new IllegalArgumentException("Bias must be between 0 and 1.");
+    }
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), CHUNK_SIZE);
+    out.write(header(height, width, bias, seed).array());
+    return new RowWriter(out, height, width);
+  }
+
+  /**
+   * Maps a maze file into memory, checking its header.
+   *
+   * @param file the file
+   * @return the mapped maze
+   * @throws IllegalArgumentException if the file is null
+   * @throws IOException if the file cannot be read or is not a valid maze file
+   */
+  public static MazeFile open(Path file) throws IllegalArgumentException, IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null.");
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("Not a maze file.");
+      }
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Wraps a maze encoded in an array, such as by {@link #toBytes(Graph)}, checking its header.
+   * The array is not copied.
+   *
+   * @param bytes the encoded maze
+   * @return the maze
+   * @throws IllegalArgumentException if the array is null
+   * @throws IOException if the array is not a valid encoded maze
+   */
+  public static MazeFile of(byte[] bytes) throws IllegalArgumentException, IOException {
+    if (bytes == null) {
+      throw new IllegalArgumentException("Bytes cannot be null.");
+    }
+    if (bytes.length < HEADER_SIZE) {
+      throw new IOException("Not a maze file.");
+    }
+    return read(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Reads the header of an encoded maze.
+   *
+   * @param in the buffer holding the whole maze, with at least a header's worth of bytes
+   * @return the maze
+   * @throws IOException if the buffer is not a valid encoded maze
+   */
+  private static MazeFile read(ByteBuffer in) throws IOException {
+    if (in.getInt() != MAGIC) {
+      throw new IOException("Not a maze file.");
+    }
+    if (in.get() != VERSION) {
+      throw new IOException("Unsupported maze file version.");
+    }
+    byte topology = in.get();
+    short bits = in.getShort();
+    if (topology == HEXAGONAL) {
+      throw new IOException("Hexagonal maze files are not supported yet.");
+    }
+    if (topology != RECTANGULAR || bits != RECT_BITS) {
+      throw new IOException("Unknown maze topology.");
+    }
+    int height = in.getInt();
+    int width = in.getInt();
+    double bias = in.getDouble();
+    long seed = in.getLong();
+    if (height < 1 || width < 1 || (long) height * width > Graph.MAX_VERTICES) {
+      throw new IOException("Invalid maze dimensions.");
+    }
+    if (!(bias >= 0 && bias <= 1)) {
+      throw new IOException("Invalid maze bias.");
+    }
+    if (in.capacity() < fileSize(height * width)) {
+      throw new IOException("Maze file is truncated.");
+    }
+    return new MazeFile(in, height, width, bias, seed);
+  }
+
+  /**
+   * Produces the size of the file for a rectangular maze with the given number of cells.
+   *
+   * @param cells the number of cells
+   * @return the size of the file in bytes
+   */
+  private static long fileSize(int cells) {
+    return HEADER_SIZE + (cells + 3L) / 4;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public double getBias() {
+    return bias;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public int numVertices() {
+    return height * width;
+  }
+
+  /**
+   * Determines whether the given cell has a passage in a given direction, reading the mapped file
+   * directly.
+   *
+   * @param vertex the index of the cell
+   * @param d the direction
+   * @return true if the cell has a passage in the given direction, false if not
+   * @throws IllegalArgumentException if the index is invalid or the direction is null
+   */
+  public boolean hasEdgePointingIn(int vertex, Direction d) throws IllegalArgumentException {
+    if (vertex < 0 || vertex >= numVertices()) {
+      throw new IllegalArgumentException("Invalid index.");
+    }
+    if (d == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+
+    switch (d) {
+    case RIGHT:
+      return (cell(vertex) & 1) != 0;
+    case DOWN:
+      return (cell(vertex) & 2) != 0;
+    case LEFT:
+      return vertex % width != 0 && (cell(vertex - 1) & 1) != 0;
+    case UP:
+      return vertex >= width && (cell(vertex - width) & 2) != 0;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Copies the mapped maze into a new graph.
+   *
+   * @return the graph
+   * @throws IOException if the file has a passage leading out of the maze
+   */
+  public Graph load() throws IOException {
+    Graph maze = new Graph(height, width, bias);
+    maze.setSeed(seed);
+    byte[] masks = maze.edgeMasks();
+    int n = numVertices();
+
+    // each cell takes its passages left and up from the cells already decoded, so no cell is
+    // written twice and there is no branch on the random bits of the cells
+    byte[] chunk = new byte[Math.min(CHUNK_SIZE, (n + 3) / 4)];
+    int outside = 0;
+    int column = 0;
+    int packed = 0;
+    for (int v = 0; v < n; v++) {
+      if ((v & 3) == 0) {
+        int offset = (v >>> 2) % CHUNK_SIZE;
+        if (offset == 0) {
+          int start = v >>> 2;
+          buffer.get(HEADER_SIZE + start, chunk, 0, Math.min(chunk.length, (n + 3) / 4 - start));
+        }
+        packed = chunk[offset];
+      }
+      int cell = (packed >>> ((v & 3) << 1)) & 3;
+      int mask = ((cell & 1) << RIGHT_BIT) | ((cell >>> 1) << DOWN_BIT);
+      if (column != 0) {
+        mask |= ((masks[v - 1] >>> RIGHT_BIT) & 1) << LEFT_BIT;
+      }
+      if (v >= width) {
+        mask |= ((masks[v - width] >>> DOWN_BIT) & 1) << UP_BIT;
+      }
+      masks[v] = (byte) mask;
+
+      if (v >= n - width) {
+        outside |= cell >>> 1;
+      }
+      if (++column == width) {
+        outside |= cell & 1;
+        column = 0;
+      }
+    }
+    if (outside != 0) {
+      throw new IOException("Maze file has a passage out of the maze.");
+    }
+    return maze;
+  }
+
+  /**
+   * Produces the 2 bits of the given cell in the mapped file.
+   *
+   * @param vertex the index of the cell
+   * @return the bits of the cell
+   */
+  private int cell(int vertex) {
+    return (buffer.get(HEADER_SIZE + (vertex >>> 2)) >>> ((vertex & 3) << 1)) & 3;
+  }
+
+  /**
+   * Represents a maze file being written one row at a time, packing the cells of each row into the
+   * bits of the file as they arrive. Keeps only the byte being packed between rows.
+   */
+  public static final class RowWriter implements EllerMazeGenerator.RowConsumer, Closeable {
+
+    private final OutputStream out;
+    private final int height;
+    private final int width;
+    private int nextRow = 0;
+    private int packed = 0;
+    private int count = 0;
+
+    private RowWriter(OutputStream out, int height, int width) {
+      this.out = out;
+      this.height = height;
+      this.width = width;
+    }
+
+    /**
+     * Writes the next row of the maze.
+     *
+     * @param row the index of the row, which must follow the last row written
+     * @param cells the passages of each cell, encoded as {@link Graph#getEdgeMask(int)} does
+     * @throws IllegalArgumentException if the row is out of order or the wrong width
+     * @throws IOException if the row cannot be written
+     */
+    @Override
+    public void acceptRow(int row, byte[] cells) throws IllegalArgumentException, IOException {
+      if (row != nextRow || row >= height) {
+        throw new IllegalArgumentException("Rows must be written in order.");
+      }
+      if (cells == null || cells.length != width) {
+        throw new IllegalArgumentException("Row must have one cell per column.");
+      }
+
+      for (int mask : cells) {
+        packed |= (((mask >> RIGHT_BIT) & 1) | (((mask >> DOWN_BIT) & 1) << 1)) << (count << 1);
+        if (++count == 4) {
+          out.write(packed);
+          packed = 0;
+          count = 0;
+        }
+      }
+      nextRow++;
+    }
+
+    /**
+     * Finishes the file, writing the last partly packed byte.
+     *
+     * @throws IOException if the file cannot be written, or not every row was written
+     */
+    @Override
+    public void close() throws IOException {
+      try (out) {
+        if (nextRow != height) {
+          throw new IOException("Maze file is missing rows.");
+        }
+        if (count != 0) {
+          out.write(packed);
+          count = 0;
+        }
+      }
+    }
+  }
+}
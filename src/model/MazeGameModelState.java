@@ -1,7 +1,5 @@
 package model;
 
-import java.util.List;
-
 /**
  * Represents the model for the state of a maze game. Provides methods to query the state of the game.
  * Parameterized by the set of movement directions available for this game.
@@ -32,16 +30,21 @@ public interface MazeGameModelState {
   /**
    * Produces the vertex that is the current position in the maze for the game.
    * 
-   * @return the vertex of the current position
+   * @return the index of the vertex of the current position
    */
-  public Vertex getCurrentVertex();
+  public int getCurrentVertex();
   
-  public List<Vertex> temp();
+  /**
+   * Produces the graph of the maze in this game.
+   * 
+   * @return the maze
+   */
+  public Graph getMaze();
 
   /**
    * Produces the vertex that is the target in the maze for the game.
    * 
-   * @return the vertex of the target
+   * @return the index of the vertex of the target
    */
-  public Vertex getTargetVertex();
+  public int getTargetVertex();
 }
@@ -0,0 +1,231 @@
+package model;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.Graph.RectMazeBuilder;
+
+/**
+ * Represents a pool of mazes generated ahead of time on background threads, so a new game can
+ * start without waiting for its maze. Only mazes of the most recently asked for height, width and
+ * bias are kept, up to a fixed number, so resizing the game drops the mazes of the old size rather
+ * than keeping them forever. Taking a maze starts generating a replacement. The statistics of each
+ * maze are found while it is generated, so starting a game with it takes O(1) time.
+ *
+ * <p>Each maze waiting in the pool costs about 6 bytes per cell: 2 for the graph and 4 for the
+ * edges still to be built.
+ */
+public final class MazePool {
+
+  private final int capacity;
+  private final ExecutorService executor;
+  private Entry current = null;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructs a new {@code MazePool} object.
+   *
+   * @param capacity the number of mazes to keep ready for each height, width and bias
+   * @param threads the number of threads to generate mazes on
+   * @throws IllegalArgumentException if the capacity or the number of threads is not positive
+   */
+  public MazePool(int capacity, int threads) throws IllegalArgumentException {
+    if (capacity < 1 || threads < 1) {
+      throw new IllegalArgumentException("Capacity and threads must be positive.");
+    }
+
+    this.capacity = capacity;
+    this.executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "maze-pool");
+      t.setDaemon(true);
+      t.setPriority(Thread.MIN_PRIORITY);
+      return t;
+    });
+  }
+
+  /**
+   * Takes a ready maze of the given kind out of the pool, and starts generating mazes of that kind
+   * until the pool is full again. Mazes of any other kind are dropped.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @return the builder of a generated maze, or null if none is ready
+   */
+  public RectMazeBuilder take(int height, int width, double bias) {
+    Entry entry = entryFor(height, width, bias);
+    RectMazeBuilder ready = entry.ready.poll();
+    if (ready == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    entry.topUp();
+    return ready;
+  }
+
+  /**
+   * Starts generating mazes of the given kind until the pool is full, without taking one. Mazes of
+   * any other kind are dropped.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   */
+  public void fill(int height, int width, double bias) {
+    entryFor(height, width, bias).topUp();
+  }
+
+  /**
+   * Produces the entry for mazes of the given kind, replacing the entry for any other kind.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @return the entry
+   */
+  private synchronized Entry entryFor(int height, int width, double bias) {
+    Key key = new Key(height, width, bias);
+    if (current == null || !current.key.equals(key)) {
+      if (current != null) {
+        current.retire();
+      }
+      current = new Entry(key);
+    }
+    return current;
+  }
+
+  /**
+   * Produces the number of times a maze was ready when taken.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Produces the number of times no maze was ready when taken.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Stops generating mazes, abandoning any being generated.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Represents the height, width and bias of a kind of maze.
+   */
+  private static final class Key {
+
+    private final int height;
+    private final int width;
+    private final double bias;
+
+    Key(int height, int width, double bias) {
+      this.height = height;
+      this.width = width;
+      this.bias = bias;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return height == other.height && width == other.width
+          && Double.compare(bias, other.bias) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(height, width, bias);
+    }
+  }
+
+  /**
+   * Represents the ready mazes of one kind, and the number being generated.
+   */
+  private final class Entry {
+
+    private final Key key;
+    private final ArrayBlockingQueue<RectMazeBuilder> ready = new ArrayBlockingQueue<>(capacity);
+    private int pending = 0;
+    private volatile boolean retired = false;
+
+    Entry(Key key) {
+      this.key = key;
+    }
+
+    /**
+     * Starts generating enough mazes to fill this entry once they are done. Stops quietly if the
+     * pool is shut down, even while this is running.
+     */
+    synchronized void topUp() {
+      while (!retired && !executor.isShutdown() && ready.size() + pending < capacity) {
+        pending++;
+        try {
+          executor.execute(this::generate);
+        } catch (RejectedExecutionException e) {
+          pending--;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Drops the ready mazes of this entry, and stops it generating more.
+     */
+    synchronized void retire() {
+      retired = true;
+      ready.clear();
+    }
+
+    /**
+     * Generates a maze and its statistics and adds them to this entry, unless it has been retired.
+     * Generation is abandoned part way through if this entry is retired meanwhile.
+     */
+    private void generate() {
+      try {
+        if (retired) {
+          return;
+        }
+        RectMazeBuilder b = Graph.rectMazeBuilder();
+        b.height(key.height).width(key.width).bias(key.bias).progress(edges -> {
+          if (retired) {
+            throw new CancellationException("Maze kind retired.");
+          }
+        }).buildIncrementally();
+        if (retired) {
+          return;
+        }
+        b.finishedStats();
+        synchronized (this) {
+          if (!retired) {
+            ready.offer(b);
+          }
+        }
+      } catch (CancellationException e) {
+        // the pool was shut down or this entry was retired
+      } finally {
+        synchronized (this) {
+          pending--;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Represents the start and target of a maze and statistics about its solutions, found with two
+ * breadth first searches. The cell farthest from cell 0 is one end of the longest path in the
+ * maze, and the cell farthest from that is the other, so the ends of the maze's diameter make the
+ * hardest start and target.
+ *
+ * <p>Takes O(V) time and 8 bytes per cell while it runs.
+ */
+public final class MazeStats {
+
+  private final int end;
+  private final int otherEnd;
+  private final int last;
+  private final int cornerLength;
+  private final int diameter;
+  private final int deadEnds;
+  private final boolean diameterPlacement;
+
+  private MazeStats(int end, int otherEnd, int last, int cornerLength, int diameter, int deadEnds,
+      boolean diameterPlacement) {
+    this.end = end;
+    this.otherEnd = otherEnd;
+    this.last = last;
+    this.cornerLength = cornerLength;
+    this.diameter = diameter;
+    this.deadEnds = deadEnds;
+    this.diameterPlacement = diameterPlacement;
+  }
+
+  /**
+   * Produces the start, target and statistics of the given finished maze.
+   *
+   * @param maze the maze
+   * @param diameterPlacement whether to place the start and target at the ends of the longest
+   *     path, rather than at cell 0 and the last cell
+   * @return the statistics of the maze
+   * @throws IllegalArgumentException if the maze is null or not connected
+   */
+  public static MazeStats of(Graph maze, boolean diameterPlacement)
+      throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null.");
+    }
+    return of(maze, maze.edgeMasks(), diameterPlacement);
+  }
+
+  /**
+   * Produces the start, target and statistics of the maze with the given edges.
+   *
+   * @param maze the maze, which gives the layout of the cells
+   * @param masks the edge bitmask of each cell
+   * @param diameterPlacement whether to place the start and target at the ends of the longest
+   *     path, rather than at cell 0 and the last cell
+   * @return the statistics of the maze
+   * @throws IllegalArgumentException if the maze is not connected
+   */
+  static MazeStats of(Graph maze, byte[] masks, boolean diameterPlacement)
+      throws IllegalArgumentException {
+    int n = maze.numVertices();
+    int[] queue = new int[n];
+    int[] distance = new int[n];
+
+    int end = farthest(maze, masks, 0, queue, distance);
+    int corner = distance[n - 1];
+    int otherEnd = farthest(maze, masks, end, queue, distance);
+    int diameter = distance[otherEnd];
+
+    int deadEnds = 0;
+    for (int v = 0; v < n; v++) {
+      if (Integer.bitCount(masks[v] & 0xFF) == 1) {
+        deadEnds++;
+      }
+    }
+    return new MazeStats(end, otherEnd, n - 1, corner, diameter, deadEnds, diameterPlacement);
+  }
+
+  /**
+   * Produces the statistics of the same maze with the start and target placed either way. Both
+   * placements are found by the same searches, so this takes O(1) time.
+   *
+   * @param diameterPlacement whether to place the start and target at the ends of the longest
+   *     path, rather than at cell 0 and the last cell
+   * @return the statistics with the given placement
+   */
+  MazeStats withPlacement(boolean diameterPlacement) {
+    if (diameterPlacement == this.diameterPlacement) {
+      return this;
+    }
+    return new MazeStats(end, otherEnd, last, cornerLength, diameter, deadEnds, diameterPlacement);
+  }
+
+  /**
+   * Searches breadth first from the given cell, recording the distance to every cell.
+   *
+   * @param maze the maze
+   * @param masks the edge bitmask of each cell
+   * @param from the cell to search from
+   * @param queue the array to queue cells in
+   * @param distance the array to record distances in
+   * @return the last cell reached, which is as far from the given cell as any
+   * @throws IllegalArgumentException if not every cell was reached
+   */
+  private static int farthest(Graph maze, byte[] masks, int from, int[] queue, int[] distance)
+      throws IllegalArgumentException {
+    Arrays.fill(distance, -1);
+    distance[from] = 0;
+    queue[0] = from;
+    int size = 1;
+    for (int i = 0; i < size; i++) {
+      int v = queue[i];
+      for (int m = masks[v] & 0xFF; m != 0; m &= m - 1) {
+        int to = maze.adjacentIn(v, Direction.lowestIn(m));
+        if (distance[to] < 0) {
+          distance[to] = distance[v] + 1;
+          queue[size++] = to;
+        }
+      }
+    }
+    if (size != queue.length) {
+      throw new IllegalArgumentException("Maze must be connected.");
+    }
+    return queue[size - 1];
+  }
+
+  /**
+   * Produces the cell the maze starts at.
+   *
+   * @return the index of the start
+   */
+  public int getStart() {
+    return diameterPlacement ? end : 0;
+  }
+
+  /**
+   * Produces the cell the maze is solved at.
+   *
+   * @return the index of the target
+   */
+  public int getTarget() {
+    return diameterPlacement ? otherEnd : last;
+  }
+
+  /**
+   * Produces the length of the path from the start to the target.
+   *
+   * @return the number of steps in the solution
+   */
+  public int getSolutionLength() {
+    return diameterPlacement ? diameter : cornerLength;
+  }
+
+  /**
+   * Produces the length of the longest path in the maze.
+   *
+   * @return the number of steps between the ends of the diameter
+   */
+  public int getDiameter() {
+    return diameter;
+  }
+
+  /**
+   * Produces the number of cells with a single passage.
+   *
+   * @return the number of dead ends
+   */
+  public int getDeadEnds() {
+    return deadEnds;
+  }
+}
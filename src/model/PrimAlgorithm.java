@@ -0,0 +1,48 @@
+package model;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import structures.IntIndexedHeap;
+
+/**
+ * Generates mazes with Prim's algorithm. Each cell outside the tree is kept in an indexed heap
+ * under its lightest edge into the tree, lowered as the tree grows, and the cell with the lightest
+ * edge joins next. Keys hold the weight above the edge index, so ties break by edge index exactly
+ * as in Kruskal's algorithm.
+ */
+final class PrimAlgorithm implements MazeAlgorithm {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  @Override
+  public int[] generate(Graph maze, long seed, IntConsumer progress) {
+    int n = maze.numVertices();
+    int[] edges = new int[n - 1];
+    int size = 0;
+    IntIndexedHeap frontier = new IntIndexedHeap(n);
+    BitSet inTree = new BitSet(n);
+
+    int v = 0;
+    while (true) {
+      inTree.set(v);
+      for (Direction d : DIRECTIONS) {
+        int to = maze.adjacentIn(v, d);
+        if (to != Graph.NO_VERTEX && !inTree.get(to)) {
+          int edge = maze.edgeBetween(v, d);
+          frontier.offer(to, ((long) maze.weigh(seed, edge) << 32) | edge);
+        }
+      }
+      if (frontier.isEmpty()) {
+        break;
+      }
+      edges[size++] = (int) frontier.peekKey();
+      v = frontier.remove();
+      if (size % Graph.PROGRESS_INTERVAL == 0) {
+        Graph.reportProgress(progress, size);
+      }
+    }
+    Graph.reportProgress(progress, size);
+    return edges;
+  }
+}
@@ -1,12 +1,14 @@
 package model;
 
-import structures.Collection;
+import structures.IntCollection;
 
 public class ReconstructUtil {
   
-  private Collection<Vertex> moves;
+  private Graph maze;
+  private IntCollection moves;
 
-  public ReconstructUtil(Collection<Vertex> moves) {
+  public ReconstructUtil(Graph maze, IntCollection moves) {
+    this.maze = maze;
     this.moves = moves;
   }
   
@@ -14,9 +16,9 @@ public class ReconstructUtil {
     return !moves.isEmpty();
   }
   
-  public Vertex nextReconstruction() {
-    Vertex v = moves.remove();
-    v.setColor(ColorScheme.RECON);
+  public int nextReconstruction() {
+    int v = moves.remove();
+    maze.setColor(v, ColorScheme.RECON);
     return v;
   }
   
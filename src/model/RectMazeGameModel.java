@@ -1,47 +1,78 @@
 package model;
 
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
 
-import model.Graph.Builder;
 import model.Graph.RectMazeBuilder;
-import structures.Collection;
-import structures.Queue;
-import structures.Stack;
+import structures.IntCollection;
+import structures.IntQueue;
+import structures.IntStack;
 
-public class RectMazeGameModel implements MazeGameModel {
+public class RectMazeGameModel implements GridMazeGameModel {
+
+  /**
+   * The fewest cells a maze generated on demand must have to be generated in strips on the common
+   * pool. Below this, handing the strips to other threads costs more than it saves.
+   */
+  private static final int PARALLEL_CELLS = 1 << 20;
   
   private Graph maze;
-  private Vertex current;
-  private Vertex target;
+  private MazeStats stats;
+  private boolean diameterPlacement = false;
+  private MazeAlgorithm algorithm = null;
+  private int start;
+  private int current;
+  private int target;
   private int height;
   private int width;
   private double bias;
   private boolean freeToMove = false;
-  private Collection<Vertex> moves;
+  private final IntCollection moves = new IntStack();
+  private final MazePool pool;
   
-  public List<Vertex> temp() {
-    return maze.getVertices();
+  @Override
+  public Graph getMaze() {
+    return maze;
   }
   
   public RectMazeGameModel(int height, int width, double bias) throws IllegalArgumentException {
+    this(height, width, bias, null);
+  }
+  
+  /**
+   * Constructs a new {@code RectMazeGameModel} object which takes its mazes from the given pool
+   * when one is ready, keeping the pool topped up with mazes for this game.
+   * 
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze towards horizontal edges
+   * @param pool the pool of mazes, or null to generate every maze when it is needed
+   * @throws IllegalArgumentException if the dimensions or bias are invalid
+   */
+  public RectMazeGameModel(int height, int width, double bias, MazePool pool)
+      throws IllegalArgumentException {
     if (height < 3 || width < 3) {
       throw new IllegalArgumentException("Height and width must be greater than 3.");
     }
-    if (height > 100 || width > 160) {
-      throw new IllegalArgumentException("Max dimensions are height = 100, width = 160.");
+    if ((long) height * width > Graph.MAX_VERTICES) {
+      throw new IllegalArgumentException("Maze cannot have more than " + Graph.MAX_VERTICES + " cells.");
     }
-    if (bias < 0 || bias > 1) {
+    if (!(bias >= 0 && bias <= 1)) {
       throw new IllegalArgumentException("Bias must be between 0 and 1.");
     }
     
     this.height = height;
     this.width = width;
     this.bias = bias;
+    this.pool = pool;
+    if (pool != null) {
+      pool.fill(height, width, bias);
+    }
   }
 
   @Override
   public boolean isMazeSolved() {
-    return current.equals(target);
+    return current == target;
   }
 
   @Override
@@ -55,27 +86,115 @@ public class RectMazeGameModel implements MazeGameModel {
   }
 
   @Override
-  public Vertex getCurrentVertex() {
+  public int getCurrentVertex() {
     return current;
   }
   
   @Override
-  public Vertex getTargetVertex() {
+  public int getTargetVertex() {
     return target;
   }
 
   @Override
-  public Builder startGame() {
+  public RectMazeBuilder startGame() {
+    return startGame(prepareGame(null));
+  }
+
+  @Override
+  public RectMazeBuilder prepareGame(IntConsumer progress) {
+    if (pool != null && algorithm == null) {
+      RectMazeBuilder ready = pool.take(height, width, bias);
+      if (ready != null) {
+        if (progress != null) {
+          progress.accept(height * width - 1);
+        }
+        return ready;
+      }
+    }
+    
     RectMazeBuilder b = Graph.rectMazeBuilder();
-    maze = b.height(height).width(width).bias(bias).buildIncrementally();
-    current = maze.getVertexAt(0);
-    target = maze.getVertexAt(maze.numVertices() - 1);
-    target.setColor(ColorScheme.TARGET);
-    moves =  new Stack<>();
+    b.height(height).width(width).bias(bias).algorithm(algorithm).progress(progress)
+        .pool(height * width >= PARALLEL_CELLS ? ForkJoinPool.commonPool() : null)
+        .buildIncrementally();
+    b.finishedStats();
+    return b;
+  }
+
+  @Override
+  public RectMazeBuilder startGame(RectMazeBuilder prepared) throws IllegalArgumentException {
+    if (prepared == null || prepared.getGraph() == null) {
+      throw new IllegalArgumentException("Builder must have generated a maze.");
+    }
+    if (prepared.getGraph().getHeight() != height || prepared.getGraph().getWidth() != width) {
+      throw new IllegalArgumentException("Maze must match the dimensions of the game.");
+    }
     
-    freeToMove = false;
+    begin(prepared.getGraph(), prepared.finishedStats().withPlacement(diameterPlacement));
+    return prepared;
+  }
+
+  /**
+   * Starts the maze game on a finished maze whose statistics are already known, such as a maze
+   * shared with {@link Graph#share()} between many games, putting the current position at the
+   * start given by the statistics.
+   * 
+   * @param maze the finished maze
+   * @param stats the statistics of the maze
+   * @throws IllegalArgumentException if the maze or statistics are null, or the maze does not match
+   *     the dimensions of the game
+   */
+  public void startGame(Graph maze, MazeStats stats) throws IllegalArgumentException {
+    if (maze == null || stats == null) {
+      throw new IllegalArgumentException("Maze and statistics cannot be null.");
+    }
+    if (maze.getHeight() != height || maze.getWidth() != width) {
+      throw new IllegalArgumentException("Maze must match the dimensions of the game.");
+    }
+    begin(maze, stats);
+  }
+
+  /**
+   * Starts the game on the given maze.
+   * 
+   * @param maze the maze
+   * @param stats the statistics of the maze
+   */
+  private void begin(Graph maze, MazeStats stats) {
+    this.maze = maze;
+    this.stats = stats;
+    start = stats.getStart();
+    target = stats.getTarget();
+    current = start;
+    maze.setColor(target, ColorScheme.TARGET);
+    moves.clear();
     
-    return b;
+    freeToMove = false;
+  }
+
+  /**
+   * Sets whether games place the start and target at the ends of the longest path in the maze,
+   * rather than in opposite corners. Takes effect from the next game.
+   * 
+   * @param diameterPlacement whether to place the start and target at the ends of the diameter
+   */
+  public void setDiameterPlacement(boolean diameterPlacement) {
+    this.diameterPlacement = diameterPlacement;
+  }
+  
+  /**
+   * Sets the algorithm games generate their mazes with. Mazes from the pool are only used with the
+   * default algorithm. Takes effect from the next game.
+   * 
+   * @param algorithm the algorithm, or null for the default
+   */
+  @Override
+  public void setAlgorithm(MazeAlgorithm algorithm) {
+    this.algorithm = algorithm;
+  }
+  
+  @Override
+  public MazeStats getStats() {
+    return stats;
   }
 
   @Override
@@ -86,12 +205,12 @@ public class RectMazeGameModel implements MazeGameModel {
     if (!freeToMove) {
       throw new IllegalStateException("Cannot move now.");
     }
-    if (current.hasEdgePointingIn(direction)) {
-      Vertex moveFrom = current;
-      current.setColor(ColorScheme.USER_VISITED);
-      current = current.getNeighborIn(direction);
-      current.setColor(ColorScheme.USER_CURSOR);
-      if (moves.peek() == current) {
+    if (maze.hasEdgePointingIn(current, direction)) {
+      int moveFrom = current;
+      maze.setColor(current, ColorScheme.USER_VISITED);
+      current = maze.getNeighborIn(current, direction);
+      maze.setColor(current, ColorScheme.USER_CURSOR);
+      if (!moves.isEmpty() && moves.peek() == current) {
         moves.remove();
       } else {
         if (moveFrom != target) {
@@ -115,8 +234,8 @@ public class RectMazeGameModel implements MazeGameModel {
     }
     
     freeToMove = false;
-    current =  temp().get(0);
-    return new SearchUtil(new Queue<Vertex>(), current, target);
+    current = start;
+    return new WorklistSearchUtil(maze, new IntQueue(), current, target);
   }
 
   @Override
@@ -126,12 +245,34 @@ public class RectMazeGameModel implements MazeGameModel {
     }
     
     freeToMove = false;
-    current =  temp().get(0);
-    return new SearchUtil(new Stack<Vertex>(), current, target);
+    current = start;
+    return new WorklistSearchUtil(maze, new IntStack(), current, target);
+  }
+
+  @Override
+  public SearchUtil aStar() throws IllegalStateException {
+    if (!freeToMove) {
+      throw new IllegalStateException("Cannot start A* now.");
+    }
+    
+    freeToMove = false;
+    current = start;
+    return new AStarSearchUtil(maze, current, target);
+  }
+
+  @Override
+  public SearchUtil bidirectionalBfs() throws IllegalStateException {
+    if (!freeToMove) {
+      throw new IllegalStateException("Cannot start bidirectional bfs now.");
+    }
+    
+    freeToMove = false;
+    current = start;
+    return new BidirectionalSearchUtil(maze, current, target);
   }
   
   @Override
   public ReconstructUtil reconstruct() {
-    return new ReconstructUtil(moves);
+    return new ReconstructUtil(maze, moves);
   }
 }
@@ -0,0 +1,68 @@
+package model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Represents an algorithm that carves a rectangular maze in a single pass over its cells, deciding
+ * each cell's passage from a little local state. The same pass either records the edges for
+ * stepping through or carves them straight into the maze, so carving at once needs no memory
+ * beyond the maze itself.
+ */
+abstract class RowAlgorithm implements MazeAlgorithm {
+
+  /**
+   * Represents the destination of the passages carved by a pass.
+   */
+  interface Carver {
+    void carve(int vertex, Direction d);
+  }
+
+  /**
+   * Runs a pass over the cells of a maze, handing each passage to the given carver.
+   *
+   * @param maze the graph, with no edges
+   * @param seed the seed for the maze
+   * @param carver the destination of the passages
+   */
+  abstract void pass(Graph maze, long seed, Carver carver);
+
+  @Override
+  public int[] generate(Graph maze, long seed, IntConsumer progress) {
+    checkRectangular(maze);
+    int[] edges = new int[maze.numVertices() - 1];
+    int[] size = {0};
+    pass(maze, seed, (v, d) -> {
+      edges[size[0]++] = maze.edgeBetween(v, d);
+      if (size[0] % Graph.PROGRESS_INTERVAL == 0) {
+        Graph.reportProgress(progress, size[0]);
+      }
+    });
+    Graph.reportProgress(progress, size[0]);
+    return edges;
+  }
+
+  @Override
+  public void carve(Graph maze, long seed, IntConsumer progress) {
+    checkRectangular(maze);
+    int[] size = {0};
+    pass(maze, seed, (v, d) -> {
+      maze.addEdge(v, d);
+      if (++size[0] % Graph.PROGRESS_INTERVAL == 0) {
+        Graph.reportProgress(progress, size[0]);
+      }
+    });
+    Graph.reportProgress(progress, size[0]);
+  }
+
+  /**
+   * Checks that the given maze is rectangular.
+   *
+   * @param maze the maze
+   * @throws IllegalArgumentException if the maze is hexagonal
+   */
+  private static void checkRectangular(Graph maze) throws IllegalArgumentException {
+    if (maze.isHex()) {
+      throw new IllegalArgumentException("Algorithm only supports rectangular mazes.");
+    }
+  }
+}
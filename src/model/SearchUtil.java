@@ -1,94 +1,158 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import structures.Collection;
-
-public class SearchUtil {
-  
-  private final Collection<Vertex> worklist;
-  private final Map<Vertex, DirectionalEdge> cameFromEdge = new HashMap<>();
-  private final List<Vertex> visited = new ArrayList<>();
-  private final Vertex target;
-  private final Vertex origin;
-  private Vertex current;
-  
-  public SearchUtil(Collection<Vertex> worklist, Vertex origin, Vertex target) 
-      throws IllegalArgumentException {
-    if (worklist == null || origin == null || target == null) {
-      throw new IllegalArgumentException("Worklist, starting, and ending nodes cannot be null.");
+import java.util.Arrays;
+import java.util.BitSet;
+
+import metrics.MazeMetrics;
+import metrics.ReconstructionEvent;
+import metrics.SearchEvent;
+
+/**
+ * Represents a search for the path between two vertices of a maze, which can be run all at once
+ * or one step at a time. Subclasses decide the order the vertices are visited in.
+ */
+public abstract class SearchUtil {
+
+  protected final Graph maze;
+  protected final int origin;
+  protected final int target;
+  protected final int[] cameFrom;
+  protected final BitSet visited;
+  private int current;
+  private int nodesExpanded = 0;
+  private SearchEvent searchEvent = new SearchEvent();
+  private ReconstructionEvent reconEvent;
+  private int pathLength = 0;
+
+  /**
+   * Constructs a new {@code SearchUtil} object.
+   *
+   * @param maze the maze to search
+   * @param origin the index of the vertex the search starts at
+   * @param target the index of the vertex the search looks for
+   * @throws IllegalArgumentException if the maze is null or either vertex is not in the maze
+   */
+  protected SearchUtil(Graph maze, int origin, int target) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null.");
     }
-    
-    this.worklist = worklist;
-    worklist.add(origin);
+    if (origin < 0 || origin >= maze.numVertices() || target < 0 || target >= maze.numVertices()) {
+      throw new IllegalArgumentException("Starting and ending nodes must be in the maze.");
+    }
+
+    this.maze = maze;
+    this.cameFrom = new int[maze.numVertices()];
+    Arrays.fill(cameFrom, Graph.NO_VERTEX);
+    this.visited = new BitSet(maze.numVertices());
     this.origin = origin;
     this.target = target;
     this.current = target;
+    searchEvent.begin();
   }
-  
+
   public void instantSearch() throws IllegalStateException {
     while (hasNextSearch()) {
       incrementSearch();
     }
   }
-  
+
   public boolean hasNextSearch() throws IllegalStateException {
-    if (!cameFromEdge.containsKey(target) && worklist.isEmpty()) {
+    if (cameFrom[target] == Graph.NO_VERTEX && isWorklistEmpty()) {
       throw new IllegalStateException("Search could not find target.");
     }
-    
-    return !cameFromEdge.containsKey(target);
-  }
-  
-  public Vertex incrementSearch() throws IllegalCallerException {
-    if (!hasNextSearch()) {
-      throw new IllegalCallerException("Cannot increment search now.");
+
+    if (cameFrom[target] == Graph.NO_VERTEX) {
+      return true;
     }
-    
-    Vertex next = worklist.remove();
-    if (!visited.contains(next)) {
-      for (DirectionalEdge e : next.getAllEdges()) {
-        this.worklist.add(e.goesTo());
-        if (!this.visited.contains(e.goesTo())) {
-          this.cameFromEdge.put(e.goesTo(), e);
-        }
-      }
-      
-      next.setColor(ColorScheme.SEARCH_VISITED);
-      visited.add(next);
-      return next;
+    if (searchEvent != null) {
+      finishSearch();
     }
-    
-    return null;
+    return false;
+  }
+
+  /**
+   * Records the end of this search.
+   */
+  private void finishSearch() {
+    MazeMetrics.get().recordSearch(nodesExpanded);
+    if (searchEvent.shouldCommit()) {
+      searchEvent.algorithm = getClass().getSimpleName();
+      searchEvent.nodesExpanded = nodesExpanded;
+      searchEvent.commit();
+    }
+    searchEvent = null;
+  }
+
+  /**
+   * Visits the next vertex in the worklist.
+   *
+   * @return the index of the visited vertex, or {@link Graph#NO_VERTEX} if it was already visited
+   * @throws IllegalCallerException if the search is over
+   */
+  public abstract int incrementSearch() throws IllegalCallerException;
+
+  /**
+   * Determines whether there are no vertices left to visit.
+   *
+   * @return true if there are no vertices left to visit, false if not
+   */
+  protected abstract boolean isWorklistEmpty();
+
+  /**
+   * Marks the given vertex as visited.
+   *
+   * @param v the index of the vertex
+   */
+  protected void visit(int v) {
+    maze.setColor(v, ColorScheme.SEARCH_VISITED);
+    visited.set(v);
+    nodesExpanded++;
   }
-  
+
+  /**
+   * Produces the number of vertices this search has visited so far.
+   *
+   * @return the number of vertices visited
+   */
+  public int getNodesExpanded() {
+    return nodesExpanded;
+  }
+
   public boolean hasNextReconstruction() throws IllegalStateException {
-    if (!cameFromEdge.containsKey(current) && !current.equals(origin)) {
+    if (cameFrom[current] == Graph.NO_VERTEX && current != origin) {
       throw new IllegalStateException("Reconstruction impossible.");
     }
-    
-    return !current.equals(origin);
+
+    return current != origin;
   }
-  
+
   public void instantReconstruction() {
     while (hasNextReconstruction()) {
       incrementReconstruction();
     }
   }
-  
-  public Vertex incrementReconstruction() throws IllegalCallerException {
+
+  public int incrementReconstruction() throws IllegalCallerException {
     if (!hasNextReconstruction()) {
       throw new IllegalCallerException("Cannot increment reconstruction now.");
     }
-    
-    Vertex temp = current;
-    if (!current.equals(target)) {
-      current.setColor(ColorScheme.RECON);
+
+    if (reconEvent == null) {
+      reconEvent = new ReconstructionEvent();
+      reconEvent.begin();
+    }
+
+    int temp = current;
+    if (current != target) {
+      maze.setColor(current, ColorScheme.RECON);
+    }
+
+    current = cameFrom[current];
+    pathLength++;
+    if (current == origin && reconEvent.shouldCommit()) {
+      reconEvent.pathLength = pathLength;
+      reconEvent.commit();
     }
-    
-    current = cameFromEdge.get(current).comesFrom();
     return temp;
   }
 }
@@ -0,0 +1,32 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates mazes with the sidewinder algorithm. The top row is one passage. Each row below is
+ * split into runs of cells joined left to right, and each run is joined to the row above through
+ * one of its cells at random.
+ */
+final class SidewinderAlgorithm extends RowAlgorithm {
+
+  @Override
+  void pass(Graph maze, long seed, Carver carver) {
+    int width = maze.getWidth();
+    SplittableRandom rand = new SplittableRandom(seed);
+
+    for (int x = 0; x < width - 1; x++) {
+      carver.carve(x, Direction.RIGHT);
+    }
+    for (int row = width; row < maze.numVertices(); row += width) {
+      int runStart = row;
+      for (int v = row; v < row + width; v++) {
+        if (v == row + width - 1 || rand.nextDouble() >= maze.getBias()) {
+          carver.carve(runStart + rand.nextInt(v - runStart + 1), Direction.UP);
+          runStart = v + 1;
+        } else {
+          carver.carve(v, Direction.RIGHT);
+        }
+      }
+    }
+  }
+}
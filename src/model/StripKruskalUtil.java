@@ -0,0 +1,473 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import metrics.SpanningTreeEvent;
+import structures.IntDisjointSet;
+
+/**
+ * Creates minimum spanning trees of rectangular graphs in parallel by splitting the rows into one
+ * strip per worker. Each strip runs Kruskal's algorithm over the edges inside it, which by the
+ * cycle property rejects only edges the whole tree rejects too. The strips are then stitched
+ * together along the edges between them.
+ *
+ * <p>Stitching runs on the calling thread, so it is kept to the rows at the edges of each strip.
+ * Only the paths of each strip's tree between cells on its edge rows can close a cycle through
+ * another strip, so each strip's tree is compressed down to those cells and the cells where the
+ * paths between them branch. Each path becomes one link standing for its heaviest edge. Kruskal's
+ * algorithm over the links and the edges between strips then accepts the edges between strips
+ * that belong to the tree, and rejects the links whose heaviest edges do not.
+ *
+ * <p>Weights and ties are those of {@link Graph#createMinimumSpanningTree(long, IntConsumer)}, so
+ * the tree is the same one Kruskal's algorithm produces, though the edges are in a different
+ * order. With a single worker, the tree is produced by Kruskal's algorithm on the calling thread.
+ *
+ * <p>Needs about 13 bytes per vertex while the strips run Kruskal's algorithm, and then about 10
+ * bytes per vertex to compress their trees, on top of the 4 bytes per vertex of the strips' trees
+ * and the 4 bytes per vertex of the whole tree.
+ */
+final class StripKruskalUtil {
+
+  /**
+   * The milliseconds between reports of progress and checks for cancellation on the calling
+   * thread while the strips are worked on.
+   */
+  private static final long PROGRESS_MILLIS = 50;
+
+  private static final byte UNVISITED = 0;
+  private static final byte ROOT = -1;
+  private static final byte DROPPED = 0x40;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final Graph graph;
+  private final long seed;
+  private final ForkJoinPool pool;
+  private final IntConsumer progress;
+  private final Strip[] strips;
+  private final AtomicInteger accepted = new AtomicInteger();
+  private volatile boolean cancelled;
+
+  private StripKruskalUtil(Graph graph, long seed, ForkJoinPool pool, IntConsumer progress,
+      int count) {
+    this.graph = graph;
+    this.seed = seed;
+    this.pool = pool;
+    this.progress = progress;
+    this.strips = new Strip[count];
+    for (int s = 0; s < count; s++) {
+      int lo = (int) ((long) graph.getHeight() * s / count) * graph.getWidth();
+      int hi = (int) ((long) graph.getHeight() * (s + 1) / count) * graph.getWidth();
+      strips[s] = new Strip(lo, hi);
+    }
+  }
+
+  /**
+   * Produces a minimum spanning tree for the given rectangular graph, split into one strip of rows
+   * per worker of the pool.
+   *
+   * @param graph the graph
+   * @param seed the seed for the edge weights
+   * @param pool the pool to run on
+   * @param progress the listener for the number of edges accepted so far, or null for no reports.
+   *     Reports are made on the calling thread.
+   * @return the edges in a minimum spanning tree of the graph, strip by strip
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  static int[] createMinimumSpanningTree(Graph graph, long seed, ForkJoinPool pool,
+      IntConsumer progress) throws CancellationException {
+    int count = Math.min(pool.getParallelism(), graph.getHeight());
+    if (count == 1) {
+      return graph.createMinimumSpanningTree(seed, progress);
+    }
+
+    SpanningTreeEvent event = new SpanningTreeEvent();
+    event.begin();
+    StripKruskalUtil util = new StripKruskalUtil(graph, seed, pool, progress, count);
+    int[] tree = util.run();
+    if (event.shouldCommit()) {
+      event.algorithm = "strip-kruskal";
+      event.cells = graph.numVertices();
+      event.threads = count;
+      event.commit();
+    }
+    return tree;
+  }
+
+  /**
+   * Builds and compresses the tree of every strip in parallel, stitches the strips together on
+   * the calling thread, and collects the edges of the whole tree in parallel.
+   *
+   * @return the edges in the tree
+   */
+  private int[] run() {
+    forEachStrip(this::compress);
+    List<Integer> bridges = stitch();
+    Graph.checkCancelled();
+
+    int[] tree = new int[graph.numVertices() - 1];
+    int[] offsets = new int[strips.length];
+    int size = 0;
+    for (int s = 0; s < strips.length; s++) {
+      offsets[s] = size;
+      size += strips[s].forest.length - strips[s].dropped;
+    }
+    for (int edge : bridges) {
+      tree[size++] = edge;
+    }
+    forEachStrip(s -> collect(strips[s], tree, offsets[s]));
+
+    if (progress != null) {
+      progress.accept(tree.length);
+    }
+    return tree;
+  }
+
+  /**
+   * Builds the tree of a strip with Kruskal's algorithm, then compresses it down to its links.
+   * Cells on the first and last rows of a strip are its terminals, except on the first and last
+   * rows of the graph, since only they have edges to other strips.
+   *
+   * @param s the index of the strip
+   */
+  private void compress(int s) {
+    Strip strip = strips[s];
+    int lo = strip.lo;
+    int n = strip.hi - lo;
+    int width = graph.getWidth();
+    int firstEnd = s > 0 ? width : 0;
+    int lastStart = s < strips.length - 1 ? n - width : n;
+
+    int[] last = new int[1];
+    strip.forest = graph.createSpanningForest(seed, lo, strip.hi, size -> {
+      if (cancelled) {
+        throw new CancellationException("Maze generation cancelled.");
+      }
+      accepted.addAndGet(size - last[0]);
+      last[0] = size;
+    });
+
+    // the strip is whole rows, so its forest is a single tree, rooted here at its first cell
+    byte[] mask = new byte[n];
+    for (int e : strip.forest) {
+      int from = graph.edgeComesFrom(e);
+      Direction d = graph.edgePointsIn(e);
+      mask[from - lo] |= d.bit();
+      mask[graph.adjacentIn(from, d) - lo] |= d.opposite().bit();
+    }
+    byte[] up = new byte[n];
+    int[] order = new int[n];
+    up[0] = ROOT;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int x = order[head];
+      for (int m = mask[x] & 0xFF; m != 0; m &= m - 1) {
+        Direction d = Direction.lowestIn(m);
+        int y = graph.adjacentIn(x + lo, d) - lo;
+        if (up[y] == UNVISITED) {
+          up[y] = (byte) (d.opposite().ordinal() + 1);
+          order[tail++] = y;
+        }
+      }
+    }
+    checkStrip();
+
+    // count the terminals under each cell, and for each cell the children on paths between them
+    int[] below = new int[n];
+    int terminals = 0;
+    Arrays.fill(mask, (byte) 0);
+    for (int k = n - 1; k >= 0; k--) {
+      int x = order[k];
+      if (x < firstEnd || x >= lastStart) {
+        below[x]++;
+        terminals++;
+      }
+      if (k > 0) {
+        int parent = parentOf(up, lo, x);
+        below[parent] += below[x];
+      }
+    }
+    for (int x = 1; x < n; x++) {
+      if (below[x] > 0 && below[x] < terminals) {
+        mask[parentOf(up, lo, x)]++;
+      }
+    }
+
+    // number the terminals and branches, and replace each path between them with a link
+    int nodes = 0;
+    for (int x = 0; x < n; x++) {
+      boolean node = x < firstEnd || x >= lastStart || mask[x] >= 2;
+      order[x] = node ? nodes++ : -1;
+    }
+    strip.nodes = nodes;
+    strip.ids = order;
+    for (int x = 1; x < n; x++) {
+      if (order[x] < 0 || below[x] == 0 || below[x] == terminals) {
+        continue;
+      }
+      long heaviest = -1;
+      int cur = x;
+      do {
+        int parent = parentOf(up, lo, cur);
+        heaviest = Math.max(heaviest, key(graph.edgeBetween(cur + lo,
+            DIRECTIONS[up[cur] - 1])));
+        cur = parent;
+      } while (order[cur] < 0);
+      strip.add(heaviest, x + lo, cur + lo, false);
+    }
+
+    // the edges to the strip above, between terminals of both strips
+    if (s > 0) {
+      for (int x = 0; x < width; x++) {
+        int edge = graph.edgeBetween(x + lo, Direction.UP);
+        strip.add(key(edge), x + lo, x + lo - width, true);
+      }
+    }
+    strip.up = up;
+  }
+
+  /**
+   * Runs Kruskal's algorithm over the links and the edges between strips, marking the heaviest
+   * edge of each rejected link as dropped from its strip.
+   *
+   * @return the edges between strips accepted into the tree
+   */
+  private List<Integer> stitch() {
+    int[] bases = new int[strips.length];
+    int total = 0;
+    int count = 0;
+    for (int s = 0; s < strips.length; s++) {
+      bases[s] = total;
+      total += strips[s].nodes;
+      count += strips[s].size;
+    }
+
+    long[] keys = new long[count];
+    int i = 0;
+    for (Strip strip : strips) {
+      System.arraycopy(strip.keys, 0, keys, i, strip.size);
+      i += strip.size;
+    }
+    Arrays.sort(keys);
+    int[] from = new int[count];
+    int[] to = new int[count];
+    boolean[] bridge = new boolean[count];
+    for (Strip strip : strips) {
+      for (int j = 0; j < strip.size; j++) {
+        int at = Arrays.binarySearch(keys, strip.keys[j]);
+        from[at] = nodeOf(bases, strip.from[j]);
+        to[at] = nodeOf(bases, strip.to[j]);
+        bridge[at] = strip.bridge[j];
+      }
+    }
+
+    List<Integer> bridges = new ArrayList<>();
+    IntDisjointSet disjSet = new IntDisjointSet(total);
+    for (int j = 0; j < count; j++) {
+      boolean joined = disjSet.union(from[j], to[j]);
+      int edge = (int) keys[j];
+      if (bridge[j] && joined) {
+        bridges.add(edge);
+      } else if (!bridge[j] && !joined) {
+        drop(edge);
+      }
+    }
+    return bridges;
+  }
+
+  /**
+   * Marks the given edge of a strip's tree as dropped from the whole tree. The mark is kept on
+   * whichever end of the edge is the child of the other.
+   *
+   * @param edge the edge
+   */
+  private void drop(int edge) {
+    Strip strip = strips[stripOf(graph.edgeComesFrom(edge))];
+    int from = graph.edgeComesFrom(edge) - strip.lo;
+    int to = graph.edgeGoesTo(edge) - strip.lo;
+    int child = strip.up[from] != ROOT && parentOf(strip.up, strip.lo, from) == to ? from : to;
+    strip.up[child] |= DROPPED;
+    strip.dropped++;
+  }
+
+  /**
+   * Copies the edges of a strip's tree that were not dropped into the whole tree.
+   *
+   * @param strip the strip
+   * @param tree the whole tree
+   * @param offset the index of the strip's first edge in the whole tree
+   */
+  private void collect(Strip strip, int[] tree, int offset) {
+    for (int e : strip.forest) {
+      int from = graph.edgeComesFrom(e) - strip.lo;
+      int to = graph.edgeGoesTo(e) - strip.lo;
+      int child = strip.up[from] != ROOT && parentOf(strip.up, strip.lo, from) == to ? from : to;
+      if ((strip.up[child] & DROPPED) == 0) {
+        tree[offset++] = e;
+      }
+    }
+  }
+
+  /**
+   * Produces the weight and index of the given edge as one key, ordered as Kruskal's algorithm
+   * orders edges.
+   *
+   * @param edge the edge
+   * @return the key of the edge
+   */
+  private long key(int edge) {
+    return ((long) graph.weigh(seed, edge) << 32) | edge;
+  }
+
+  /**
+   * Produces the parent of a cell in its strip's tree.
+   *
+   * @param up the direction of each cell's parent, offset by one
+   * @param lo the first cell of the strip
+   * @param x the cell, relative to the start of its strip
+   * @return the parent, relative to the start of the strip
+   */
+  private int parentOf(byte[] up, int lo, int x) {
+    return graph.adjacentIn(x + lo, DIRECTIONS[(up[x] & ~DROPPED) - 1]) - lo;
+  }
+
+  /**
+   * Produces the index of the strip holding the given vertex.
+   *
+   * @param vertex the index of the vertex
+   * @return the index of the strip
+   */
+  private int stripOf(int vertex) {
+    int lo = 0;
+    int hi = strips.length - 1;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (strips[mid].lo <= vertex) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Produces the number the stitching gives the given terminal or branch.
+   *
+   * @param bases the first number of each strip
+   * @param vertex the index of the vertex
+   * @return the number of the vertex
+   */
+  private int nodeOf(int[] bases, int vertex) {
+    int s = stripOf(vertex);
+    return bases[s] + strips[s].ids[vertex - strips[s].lo];
+  }
+
+  /**
+   * Gives up on the strip being worked on if generation has been cancelled.
+   *
+   * @throws CancellationException if generation has been cancelled
+   */
+  private void checkStrip() throws CancellationException {
+    if (cancelled) {
+      throw new CancellationException("Maze generation cancelled.");
+    }
+  }
+
+  /**
+   * Runs the given action for every strip on the pool, reporting progress and checking for
+   * cancellation on the calling thread while it waits.
+   *
+   * @param action the action, given the index of a strip
+   * @throws CancellationException if the calling thread is interrupted
+   */
+  private void forEachStrip(IntConsumer action) throws CancellationException {
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int s = 0; s < strips.length; s++) {
+      int strip = s;
+      tasks.add(ForkJoinTask.adapt(() -> action.accept(strip)));
+    }
+    ForkJoinTask<?> all = pool.submit(() -> {
+      ForkJoinTask.invokeAll(tasks);
+    });
+
+    while (true) {
+      try {
+        all.get(PROGRESS_MILLIS, TimeUnit.MILLISECONDS);
+        return;
+      } catch (TimeoutException e) {
+        try {
+          Graph.reportProgress(progress, accepted.get());
+        } catch (CancellationException c) {
+          cancelled = true;
+          all.quietlyJoin();
+          throw c;
+        }
+      } catch (InterruptedException e) {
+        cancelled = true;
+        all.quietlyJoin();
+        throw new CancellationException("Maze generation cancelled.");
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Represents a strip of whole rows, with its tree and the links it is compressed to.
+   */
+  private static final class Strip {
+
+    private final int lo;
+    private final int hi;
+    private int[] forest;
+    private byte[] up;
+    private int[] ids;
+    private int nodes;
+    private int dropped;
+    private long[] keys = new long[16];
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private boolean[] bridge = new boolean[16];
+    private int size;
+
+    Strip(int lo, int hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    /**
+     * Adds a link of this strip's tree, or an edge to the strip above.
+     *
+     * @param key the weight and index of the heaviest edge
+     * @param from the vertex at one end
+     * @param to the vertex at the other end
+     * @param bridge whether this is an edge to the strip above
+     */
+    void add(long key, int from, int to, boolean bridge) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        this.from = Arrays.copyOf(this.from, size * 2);
+        this.to = Arrays.copyOf(this.to, size * 2);
+        this.bridge = Arrays.copyOf(this.bridge, size * 2);
+      }
+      keys[size] = key;
+      this.from[size] = from;
+      this.to[size] = to;
+      this.bridge[size] = bridge;
+      size++;
+    }
+  }
+}
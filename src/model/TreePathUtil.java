@@ -0,0 +1,237 @@
+package model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Answers distance and path queries between any two cells of a finished maze. Every maze is a
+ * spanning tree, so the path between two cells is unique and runs through their lowest common
+ * ancestor. The tree is rooted at cell 0 and split into heavy paths, where each cell continues the
+ * path of its parent if it has the largest subtree of its siblings. Any path up to the root
+ * crosses at most log2(n) heavy paths, so the lowest common ancestor is found in O(log n) steps.
+ *
+ * <p>Preprocessing is three linear passes over the maze. The structure keeps 10 bytes per cell:
+ * the depth and the head of its heavy path as ints, and the direction of its parent and of its
+ * heavy child as bytes. Preprocessing needs 4 more bytes per cell while it runs.
+ */
+public final class TreePathUtil {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final byte NO_DIRECTION = -1;
+
+  private final Graph maze;
+  private final int[] depth;
+  private final int[] head;
+  private final byte[] parentDir;
+  private final byte[] heavyDir;
+
+  /**
+   * Constructs a new {@code TreePathUtil} object, preprocessing the given maze.
+   *
+   * @param maze the maze, which must be fully built
+   * @throws IllegalArgumentException if the maze is null or is not a spanning tree
+   */
+  public TreePathUtil(Graph maze) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null.");
+    }
+
+    int n = maze.numVertices();
+    this.maze = maze;
+    this.depth = new int[n];
+    this.head = new int[n];
+    this.parentDir = new byte[n];
+    this.heavyDir = new byte[n];
+    Arrays.fill(parentDir, NO_DIRECTION);
+    Arrays.fill(heavyDir, NO_DIRECTION);
+
+    // breadth first from the root, recording the order vertices are reached in
+    byte[] masks = maze.edgeMasks();
+    int[] order = new int[n];
+    int size = 1;
+    for (int i = 0; i < size; i++) {
+      int v = order[i];
+      for (int m = masks[v] & 0xFF; m != 0; m &= m - 1) {
+        int d = Integer.numberOfTrailingZeros(m);
+        if (d == parentDir[v]) {
+          continue;
+        }
+        int to = maze.adjacentIn(v, DIRECTIONS[d]);
+        if (to == 0 || parentDir[to] != NO_DIRECTION || size == n) {
+          throw new IllegalArgumentException("Maze must be a spanning tree.");
+        }
+        parentDir[to] = (byte) DIRECTIONS[d].opposite().ordinal();
+        depth[to] = depth[v] + 1;
+        order[size++] = to;
+      }
+    }
+    if (size != n) {
+      throw new IllegalArgumentException("Maze must be a spanning tree.");
+    }
+
+    // children come after their parents, so subtree sizes accumulate in reverse order
+    int[] subtree = head;
+    Arrays.fill(subtree, 1);
+    for (int i = n - 1; i > 0; i--) {
+      int v = order[i];
+      int parent = parent(v);
+      subtree[parent] += subtree[v];
+      int heavy = heavyChild(parent);
+      if (heavy == Graph.NO_VERTEX || subtree[v] > subtree[heavy]) {
+        heavyDir[parent] = (byte) DIRECTIONS[parentDir[v]].opposite().ordinal();
+      }
+    }
+
+    for (int i = 0; i < n; i++) {
+      int v = order[i];
+      head[v] = i > 0 && heavyChild(parent(v)) == v ? head[parent(v)] : v;
+    }
+  }
+
+  /**
+   * Produces the number of steps on the path between two cells.
+   *
+   * @param u the index of the first cell
+   * @param v the index of the second cell
+   * @return the length of the path
+   * @throws IllegalArgumentException if either index is invalid
+   */
+  public int distance(int u, int v) throws IllegalArgumentException {
+    return depth[u] + depth[v] - 2 * depth[lowestCommonAncestor(u, v)];
+  }
+
+  /**
+   * Produces the cell closest to cell 0 on the path between two cells.
+   *
+   * @param u the index of the first cell
+   * @param v the index of the second cell
+   * @return the index of the lowest common ancestor of the cells
+   * @throws IllegalArgumentException if either index is invalid
+   */
+  public int lowestCommonAncestor(int u, int v) throws IllegalArgumentException {
+    checkVertex(u);
+    checkVertex(v);
+    while (head[u] != head[v]) {
+      if (depth[head[u]] > depth[head[v]]) {
+        u = parent(head[u]);
+      } else {
+        v = parent(head[v]);
+      }
+    }
+    return depth[u] < depth[v] ? u : v;
+  }
+
+  /**
+   * Produces the cells on the path between two cells, from the first to the second inclusive. The
+   * cells are found as they are iterated over, so only a handful are kept at a time.
+   *
+   * @param u the index of the first cell
+   * @param v the index of the second cell
+   * @return an iterator over the cells on the path
+   * @throws IllegalArgumentException if either index is invalid
+   */
+  public PrimitiveIterator.OfInt path(int u, int v) throws IllegalArgumentException {
+    return new PathIterator(u, v, lowestCommonAncestor(u, v));
+  }
+
+  /**
+   * Produces the parent of the given cell.
+   *
+   * @param v the index of the cell
+   * @return the index of the parent, or {@link Graph#NO_VERTEX} for the root
+   */
+  private int parent(int v) {
+    return parentDir[v] == NO_DIRECTION ? Graph.NO_VERTEX
+        : maze.adjacentIn(v, DIRECTIONS[parentDir[v]]);
+  }
+
+  /**
+   * Produces the child of the given cell that continues its heavy path.
+   *
+   * @param v the index of the cell
+   * @return the index of the heavy child, or {@link Graph#NO_VERTEX} for a leaf
+   */
+  private int heavyChild(int v) {
+    return heavyDir[v] == NO_DIRECTION ? Graph.NO_VERTEX
+        : maze.adjacentIn(v, DIRECTIONS[heavyDir[v]]);
+  }
+
+  /**
+   * Checks that the given index is the index of a cell in the maze.
+   *
+   * @param v the index
+   * @throws IllegalArgumentException if the index is invalid
+   */
+  private void checkVertex(int v) throws IllegalArgumentException {
+    if (v < 0 || v >= depth.length) {
+      throw new IllegalArgumentException("Invalid index.");
+    }
+  }
+
+  /**
+   * Represents an iteration over a path, first climbing from one cell to the lowest common
+   * ancestor, then descending to the other cell one heavy path segment at a time. The segments
+   * are found climbing from the other cell, so they are kept and descended in reverse.
+   */
+  private final class PathIterator implements PrimitiveIterator.OfInt {
+
+    private final int lca;
+    private int[] segments = new int[16];
+    private int segment = 0;
+    private boolean climbing = true;
+    private int next;
+
+    PathIterator(int u, int v, int lca) {
+      this.lca = lca;
+      this.next = u;
+
+      int w = v;
+      while (head[w] != head[lca]) {
+        push(head[w], w);
+        w = parent(head[w]);
+      }
+      if (w != lca) {
+        push(heavyChild(lca), w);
+      }
+    }
+
+    /**
+     * Adds a segment of a heavy path to descend.
+     *
+     * @param top the index of the first cell of the segment
+     * @param bottom the index of the last cell of the segment
+     */
+    private void push(int top, int bottom) {
+      if (segment == segments.length) {
+        segments = Arrays.copyOf(segments, segments.length * 2);
+      }
+      segments[segment++] = top;
+      segments[segment++] = bottom;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != Graph.NO_VERTEX;
+    }
+
+    @Override
+    public int nextInt() throws NoSuchElementException {
+      if (next == Graph.NO_VERTEX) {
+        throw new NoSuchElementException("No more cells on the path.");
+      }
+
+      int result = next;
+      if (climbing && next != lca) {
+        next = parent(next);
+      } else if (!climbing && next != segments[segment + 1]) {
+        next = heavyChild(next);
+      } else {
+        climbing = false;
+        segment -= 2;
+        next = segment >= 0 ? segments[segment] : Graph.NO_VERTEX;
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Generates mazes with Wilson's algorithm. Starting from each cell not yet in the maze, walks at
+ * random until it reaches the maze, remembering only the direction it last left each cell in. That
+ * erases any loops the walk made, so retracing the remembered directions from the start carves a
+ * loop-free path into the maze.
+ */
+final class WilsonAlgorithm implements MazeAlgorithm {
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  @Override
+  public int[] generate(Graph maze, long seed, IntConsumer progress) {
+    int n = maze.numVertices();
+    int[] edges = new int[n - 1];
+    int size = 0;
+    byte[] exits = new byte[n];
+    BitSet inMaze = new BitSet(n);
+    SplittableRandom rand = new SplittableRandom(seed);
+    int directions = maze.isHex() ? DIRECTIONS.length : 4;
+
+    inMaze.set(0);
+    for (int start = 1; start < n; start++) {
+      int v = start;
+      while (!inMaze.get(v)) {
+        Direction d;
+        int to;
+        do {
+          d = DIRECTIONS[rand.nextInt(directions)];
+          to = maze.adjacentIn(v, d);
+        } while (to == Graph.NO_VERTEX);
+        exits[v] = (byte) d.ordinal();
+        v = to;
+      }
+
+      v = start;
+      while (!inMaze.get(v)) {
+        inMaze.set(v);
+        Direction d = DIRECTIONS[exits[v]];
+        edges[size++] = maze.edgeBetween(v, d);
+        v = maze.adjacentIn(v, d);
+        if (size % Graph.PROGRESS_INTERVAL == 0) {
+          Graph.reportProgress(progress, size);
+        }
+      }
+    }
+    Graph.reportProgress(progress, size);
+    return edges;
+  }
+}
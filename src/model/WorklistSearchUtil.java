@@ -0,0 +1,61 @@
+package model;
+
+import structures.IntCollection;
+
+/**
+ * Represents a search that visits vertices in the order its worklist produces them, such as a
+ * breadth first search with a queue or a depth first search with a stack.
+ */
+public class WorklistSearchUtil extends SearchUtil {
+
+  private final IntCollection worklist;
+
+  /**
+   * Constructs a new {@code WorklistSearchUtil} object.
+   *
+   * @param maze the maze to search
+   * @param worklist the worklist deciding the order vertices are visited in
+   * @param origin the index of the vertex the search starts at
+   * @param target the index of the vertex the search looks for
+   * @throws IllegalArgumentException if the maze or worklist is null or either vertex is not in
+   *     the maze
+   */
+  public WorklistSearchUtil(Graph maze, IntCollection worklist, int origin, int target)
+      throws IllegalArgumentException {
+    super(maze, origin, target);
+    if (worklist == null) {
+      throw new IllegalArgumentException("Worklist cannot be null.");
+    }
+
+    this.worklist = worklist;
+    worklist.add(origin);
+  }
+
+  @Override
+  public int incrementSearch() throws IllegalCallerException {
+    if (!hasNextSearch()) {
+      throw new IllegalCallerException("Cannot increment search now.");
+    }
+
+    int next = worklist.remove();
+    if (!visited.get(next)) {
+      for (int m = maze.getEdgeMask(next); m != 0; m &= m - 1) {
+        int to = maze.adjacentIn(next, Direction.lowestIn(m));
+        if (!this.visited.get(to)) {
+          this.worklist.add(to);
+          this.cameFrom[to] = next;
+        }
+      }
+
+      visit(next);
+      return next;
+    }
+
+    return Graph.NO_VERTEX;
+  }
+
+  @Override
+  protected boolean isWorklistEmpty() {
+    return worklist.isEmpty();
+  }
+}
@@ -0,0 +1,204 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.MazeMetrics;
+
+/**
+ * Represents a headless server hosting any number of maze games at once over a local TCP socket,
+ * one session per connection. Sessions playing the same maze share it through
+ * {@link SharedMazes}. Each session runs on its own thread with a small stack, so thousands of
+ * sessions fit in one JVM.
+ *
+ * <p>Players send one command per line and get one reply per line. Cells are given by index and
+ * passages by a bitmask with the bit {@link model.Direction#bit()} set for each open direction.
+ *
+ * <ul>
+ * <li>{@code NEW height width bias seed} starts a game, replying
+ *     {@code OK start target solutionLength passages}.</li>
+ * <li>{@code MOVE direction} moves the player, replying {@code OK cell passages}, or
+ *     {@code SOLVED cell passages} on reaching the target.</li>
+ * <li>{@code BFS} or {@code DFS} searches from the start to the target, replying
+ *     {@code OK cellsVisited pathLength}. The player cannot move afterwards.</li>
+ * <li>{@code RECON} traces the player's moves back to the start, replying {@code OK length}.</li>
+ * <li>{@code QUIT} ends the session, replying {@code BYE}.</li>
+ * </ul>
+ *
+ * <p>Invalid commands are answered with {@code ERR message}, and the session carries on.
+ */
+public final class GameServer implements Closeable {
+
+  /**
+   * The most cells a maze played on the server can have.
+   */
+  public static final int MAX_CELLS = 1 << 22;
+
+  private static final long SESSION_STACK_SIZE = 256 * 1024;
+  private static final int BACKLOG = 1024;
+
+  private final ServerSocket listener;
+  private final SharedMazes mazes;
+  private final ExecutorService sessions;
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger opened = new AtomicInteger();
+  private final LongAdder commands = new LongAdder();
+  private Thread acceptor;
+
+  /**
+   * Constructs a new {@code GameServer} object listening on the loopback address.
+   *
+   * @param port the port to listen on, or 0 for any free port
+   * @param diameterPlacement whether to place the start and target at the ends of the longest path
+   *     in each maze, rather than in opposite corners
+   * @throws IOException if the port cannot be listened on
+   */
+  public GameServer(int port, boolean diameterPlacement) throws IOException {
+    this.listener = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    this.mazes = new SharedMazes(diameterPlacement);
+    this.sessions = Executors.newCachedThreadPool(r ->
+        new Thread(null, r, "session-" + opened.incrementAndGet(), SESSION_STACK_SIZE));
+  }
+
+  /**
+   * Starts accepting players on a thread of its own.
+   *
+   * @throws IllegalStateException if the server has already started
+   */
+  public synchronized void start() throws IllegalStateException {
+    if (acceptor != null) {
+      throw new IllegalStateException("Server has already started.");
+    }
+    acceptor = new Thread(this::accept, "acceptor");
+    acceptor.start();
+  }
+
+  /**
+   * Accepts players until the server is closed. Each socket is tracked from the moment it is
+   * accepted, so closing the server closes it whatever stage it has reached, and a socket whose
+   * session cannot be started is closed rather than leaked.
+   */
+  private void accept() {
+    while (!listener.isClosed()) {
+      Socket socket;
+      try {
+        socket = listener.accept();
+      } catch (SocketException e) {
+        // the listener was closed
+        continue;
+      } catch (IOException e) {
+        System.err.println("Could not accept player: " + e.getMessage());
+        continue;
+      }
+      connections.add(socket);
+      try {
+        if (listener.isClosed()) {
+          // closed after this socket was accepted, and may have missed it
+          throw new RejectedExecutionException("Server is closed.");
+        }
+        socket.setTcpNoDelay(true);
+        GameSession session = new GameSession(socket, mazes, commands);
+        sessions.execute(() -> {
+          try {
+            session.run();
+          } finally {
+            connections.remove(socket);
+          }
+        });
+      } catch (IOException | RejectedExecutionException e) {
+        if (!listener.isClosed()) {
+          System.err.println("Could not start session: " + e.getMessage());
+        }
+        connections.remove(socket);
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  /**
+   * Closes the given socket, ignoring any failure, as there is nothing left to do with it.
+   *
+   * @param socket the socket
+   */
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // already unusable
+    }
+  }
+
+  public int getPort() {
+    return listener.getLocalPort();
+  }
+
+  public int getActiveSessions() {
+    return connections.size();
+  }
+
+  public int getMazesInPlay() {
+    return mazes.size();
+  }
+
+  public int getMazesGenerated() {
+    return mazes.getGenerated();
+  }
+
+  public long getCommands() {
+    return commands.sum();
+  }
+
+  /**
+   * Stops accepting players and disconnects every session.
+   *
+   * @throws IOException if the listener cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    listener.close();
+    sessions.shutdown();
+    for (Socket socket : connections) {
+      socket.close();
+    }
+  }
+
+  /**
+   * Runs a server until it is killed, printing how busy it is every few seconds. Takes the port
+   * and whether to place the start and target at the ends of each maze's diameter, which default
+   * to 4242 and false.
+   *
+   * @param args the command line arguments
+   * @throws IOException if the port cannot be listened on
+   * @throws InterruptedException if the main thread is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4242;
+    boolean diameterPlacement = args.length > 1 && Boolean.parseBoolean(args[1]);
+
+    MazeMetrics.register();
+    GameServer server = new GameServer(port, diameterPlacement);
+    server.start();
+    System.out.println("Listening on port " + server.getPort());
+
+    long lastCommands = 0;
+    while (true) {
+      Thread.sleep(5000);
+      long total = server.getCommands();
+      System.out.printf("%6d sessions %6d mazes in play %8d generated %10.0f commands/s%n",
+          server.getActiveSessions(), server.getMazesInPlay(), server.getMazesGenerated(),
+          (total - lastCommands) / 5.0);
+      lastCommands = total;
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.Direction;
+import model.ReconstructUtil;
+import model.RectMazeGameModel;
+import model.SearchUtil;
+
+/**
+ * Represents one player's connection to a {@link GameServer}, reading commands a line at a time
+ * and answering each with a line. The session plays on its own {@link RectMazeGameModel} over a
+ * share of a maze from {@link SharedMazes}, so only the colors of the maze cost memory per
+ * session. Replies are flushed once no more commands are waiting, so pipelined commands are
+ * answered together.
+ */
+final class GameSession implements Runnable {
+
+  private final Socket socket;
+  private final SharedMazes mazes;
+  private final LongAdder commands;
+  private RectMazeGameModel game;
+  private SharedMazes.Shared shared;
+
+  /**
+   * Constructs a new {@code GameSession} object.
+   *
+   * @param socket the connection to the player
+   * @param mazes the mazes in play on the server
+   * @param commands the count of commands answered by the server
+   */
+  GameSession(Socket socket, SharedMazes mazes, LongAdder commands) {
+    this.socket = socket;
+    this.mazes = mazes;
+    this.commands = commands;
+  }
+
+  @Override
+  public void run() {
+    try (socket;
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        Writer out = new BufferedWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        String reply = handle(line);
+        commands.increment();
+        out.write(reply == null ? "BYE" : reply);
+        out.write('\n');
+        if (reply == null || !in.ready()) {
+          out.flush();
+        }
+        if (reply == null) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      // the player has gone, so there is no one to report to
+    } finally {
+      if (shared != null) {
+        mazes.release(shared);
+      }
+    }
+  }
+
+  /**
+   * Carries out a command.
+   *
+   * @param line the command
+   * @return the reply, or null if the player has quit
+   */
+  String handle(String line) {
+    String[] args = line.trim().split("\\s+");
+    try {
+      switch (args[0].toUpperCase(Locale.ROOT)) {
+      case "NEW":
+        return newGame(args);
+      case "MOVE":
+        return move(args);
+      case "BFS":
+        return search(checkGame().bfs());
+      case "DFS":
+        return search(checkGame().dfs());
+      case "RECON":
+        return reconstruct();
+      case "QUIT":
+        return null;
+      default:
+        return "ERR Unknown command.";
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return "ERR " + e.getMessage();
+    }
+  }
+
+  /**
+   * Starts a game on the maze with the given height, width, bias and seed.
+   *
+   * @param args the command and its arguments
+   * @return the start, target, length of the solution and passages of the start
+   * @throws IllegalArgumentException if the arguments are invalid or the maze is too large
+   */
+  private String newGame(String[] args) throws IllegalArgumentException {
+    checkArgs(args, 5);
+    int height = Integer.parseInt(args[1]);
+    int width = Integer.parseInt(args[2]);
+    double bias = Double.parseDouble(args[3]);
+    long seed = Long.parseLong(args[4]);
+    if ((long) height * width > GameServer.MAX_CELLS) {
+      throw new IllegalArgumentException("Maze cannot have more than " + GameServer.MAX_CELLS
+          + " cells.");
+    }
+    RectMazeGameModel next = new RectMazeGameModel(height, width, bias);
+
+    SharedMazes.Shared claimed = mazes.acquire(height, width, bias, seed);
+    if (shared != null) {
+      mazes.release(shared);
+    }
+    shared = claimed;
+    game = next;
+    game.startGame(shared.getMaze().share(), shared.getStats());
+    game.setFreeToMove(true);
+    return "OK " + game.getCurrentVertex() + " " + game.getTargetVertex() + " "
+        + game.getStats().getSolutionLength() + " " + passages();
+  }
+
+  /**
+   * Moves the player in the given direction.
+   *
+   * @param args the command and its argument
+   * @return the new position and its passages, flagged as solved if it is the target
+   * @throws IllegalArgumentException if the direction is invalid or blocked
+   * @throws IllegalStateException if the player cannot move now
+   */
+  private String move(String[] args) throws IllegalArgumentException, IllegalStateException {
+    checkArgs(args, 2);
+    Direction direction;
+    try {
+      direction = Direction.valueOf(args[1].toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown direction.");
+    }
+    checkGame().move(direction);
+    return (game.isMazeSolved() ? "SOLVED " : "OK ") + game.getCurrentVertex() + " " + passages();
+  }
+
+  /**
+   * Runs a search to the end and traces the path it found.
+   *
+   * @param search the search
+   * @return the number of cells the search visited and the length of the path
+   */
+  private String search(SearchUtil search) {
+    search.instantSearch();
+    int length = 0;
+    while (search.hasNextReconstruction()) {
+      search.incrementReconstruction();
+      length++;
+    }
+    return "OK " + search.getNodesExpanded() + " " + length;
+  }
+
+  /**
+   * Traces the player's moves back to the start.
+   *
+   * @return the number of cells on the player's path
+   * @throws IllegalStateException if no game has started
+   */
+  private String reconstruct() throws IllegalStateException {
+    ReconstructUtil recon = checkGame().reconstruct();
+    int length = 0;
+    while (recon.hasNextReconstruction()) {
+      recon.nextReconstruction();
+      length++;
+    }
+    return "OK " + length;
+  }
+
+  /**
+   * Produces the passages out of the player's position, as a bitmask with the bit
+   * {@link Direction#bit()} set for each direction with a passage.
+   *
+   * @return the bitmask
+   */
+  private int passages() {
+    return game.getMaze().getEdgeMask(game.getCurrentVertex());
+  }
+
+  /**
+   * Checks that a game has started.
+   *
+   * @return the game
+   * @throws IllegalStateException if no game has started
+   */
+  private RectMazeGameModel checkGame() throws IllegalStateException {
+    if (game == null) {
+      throw new IllegalStateException("No game started.");
+    }
+    return game;
+  }
+
+  /**
+   * Checks that a command has the given number of words.
+   *
+   * @param args the command and its arguments
+   * @param count the number of words expected
+   * @throws IllegalArgumentException if the command has a different number of words
+   */
+  private static void checkArgs(String[] args, int count) throws IllegalArgumentException {
+    if (args.length != count) {
+      throw new IllegalArgumentException("Wrong number of arguments.");
+    }
+  }
+}
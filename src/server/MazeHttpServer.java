@@ -0,0 +1,331 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import metrics.MazeMetrics;
+import model.Graph;
+import model.MazeFile;
+import model.TreePathUtil;
+
+/**
+ * Represents a local HTTP server that generates and solves mazes for other programs. Every
+ * endpoint takes the query parameters {@code height}, {@code width}, {@code bias} and {@code seed},
+ * and the same parameters always give the same maze.
+ *
+ * <ul>
+ * <li>{@code GET /maze} returns the maze in the binary format of {@link MazeFile}.</li>
+ * <li>{@code GET /solution} returns the path from the top left cell to the bottom right cell as
+ *     text: a line with the start, the target and the number of steps, then a line with one letter
+ *     of {@code U}, {@code R}, {@code D} or {@code L} per step.</li>
+ * <li>{@code GET /stats} returns the hits, misses, hit rate, evictions, entries and bytes of the
+ *     result cache, one per line.</li>
+ * </ul>
+ *
+ * <p>Results are kept in a {@link ResultCache} bounded by bytes, so repeated requests skip
+ * generating and solving the maze. A cached maze takes a quarter of a byte per cell. Solving a maze
+ * whose encoding is cached decodes it rather than generating it again.
+ *
+ * <p>The JDK's server writes the headers and body of a response separately, so with Nagle's
+ * algorithm each small response waits out the client's delayed acknowledgement, about 40ms. Launch
+ * with {@code -Dsun.net.httpserver.nodelay=true} to avoid this. The property is read once, when the
+ * first server in the JVM is created, so {@link #main(String[])} sets it unless it is already set.
+ */
+public final class MazeHttpServer implements Closeable {
+
+  private static final String MAZE_TYPE = "application/octet-stream";
+  private static final String TEXT_TYPE = "text/plain; charset=us-ascii";
+  private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ResultCache<Key> cache;
+
+  /**
+   * Constructs a new {@code MazeHttpServer} object listening on the loopback address.
+   *
+   * @param port the port to listen on, or 0 for any free port
+   * @param threads the number of threads to handle requests on
+   * @param cacheBytes the most bytes of results to cache
+   * @throws IllegalArgumentException if the number of threads is not positive or the cache size is
+   *     negative
+   * @throws IOException if the port cannot be listened on
+   */
+  public MazeHttpServer(int port, int threads, long cacheBytes)
+      throws IllegalArgumentException, IOException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive.");
+    }
+    this.cache = new ResultCache<>(cacheBytes);
+    InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    this.server = HttpServer.create(address, 0);
+    this.executor = Executors.newFixedThreadPool(threads);
+    server.setExecutor(executor);
+    server.createContext("/maze", exchange -> handle(exchange, MAZE_TYPE, this::maze));
+    server.createContext("/solution", exchange -> handle(exchange, TEXT_TYPE, this::solution));
+    server.createContext("/stats", exchange -> handle(exchange, TEXT_TYPE, query -> stats()));
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops the server, finishing the requests being handled.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  /**
+   * Answers a request with the result for its query.
+   *
+   * @param exchange the request
+   * @param type the content type of the result
+   * @param respond the function producing the result for a query
+   * @throws IOException if the response cannot be sent
+   */
+  private static void handle(HttpExchange exchange, String type, Function<String, byte[]> respond)
+      throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        send(exchange, 405, TEXT_TYPE, message("Only GET is allowed."));
+        return;
+      }
+
+      byte[] body;
+      try {
+        body = respond.apply(exchange.getRequestURI().getRawQuery());
+      } catch (IllegalArgumentException e) {
+        send(exchange, 400, TEXT_TYPE, message(e.getMessage()));
+        return;
+      } catch (RuntimeException e) {
+        send(exchange, 500, TEXT_TYPE, message("Could not produce result."));
+        return;
+      }
+      send(exchange, 200, type, body);
+    }
+  }
+
+  /**
+   * Encodes a message as a line of text.
+   *
+   * @param message the message
+   * @return the encoded message
+   */
+  private static byte[] message(String message) {
+    return (message + "\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Sends a response.
+   *
+   * @param exchange the request
+   * @param status the status code
+   * @param type the content type
+   * @param body the body
+   * @throws IOException if the response cannot be sent
+   */
+  private static void send(HttpExchange exchange, int status, String type, byte[] body)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", type);
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Produces the encoded maze for a query.
+   *
+   * @param query the query
+   * @return the maze in the format of {@link MazeFile}
+   * @throws IllegalArgumentException if the query is invalid
+   */
+  private byte[] maze(String query) throws IllegalArgumentException {
+    Key key = Key.parse(query, false);
+    return cache.get(key, () -> MazeFile.toBytes(Graph.rectMazeBuilder().height(key.height)
+        .width(key.width).bias(key.bias).seed(key.seed).buildInstant()));
+  }
+
+  /**
+   * Produces the solution of the maze for a query.
+   *
+   * @param query the query
+   * @return the solution as text
+   * @throws IllegalArgumentException if the query is invalid
+   */
+  private byte[] solution(String query) throws IllegalArgumentException {
+    Key key = Key.parse(query, true);
+    return cache.get(key, () -> {
+      Graph maze;
+      try {
+        maze = MazeFile.of(maze(query)).load();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      int target = maze.numVertices() - 1;
+      TreePathUtil paths = new TreePathUtil(maze);
+      int steps = paths.distance(0, target);
+      StringBuilder text = new StringBuilder(steps + 32);
+      text.append(0).append(' ').append(target).append(' ').append(steps).append('\n');
+      // steps of the width are vertical, checked first as they are steps of 1 in a single column
+      int width = maze.getWidth();
+      PrimitiveIterator.OfInt path = paths.path(0, target);
+      for (int from = path.nextInt(); path.hasNext(); ) {
+        int to = path.nextInt();
+        text.append(to == from + width ? 'D' : to == from - width ? 'U' : to > from ? 'R' : 'L');
+        from = to;
+      }
+      return text.append('\n').toString().getBytes(StandardCharsets.US_ASCII);
+    });
+  }
+
+  /**
+   * Produces the statistics of the result cache.
+   *
+   * @return the statistics as text
+   */
+  private byte[] stats() {
+    long hits = cache.getHits();
+    long misses = cache.getMisses();
+    String text = String.format("hits %d%nmisses %d%nhitRate %.4f%nevictions %d%nentries %d%n"
+        + "bytes %d%n", hits, misses, hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+        cache.getEvictions(), cache.getEntries(), cache.getSize());
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Represents the parameters of a request, and whether it is for the solution or the maze.
+   */
+  private static final class Key {
+
+    private final int height;
+    private final int width;
+    private final double bias;
+    private final long seed;
+    private final boolean solution;
+
+    private Key(int height, int width, double bias, long seed, boolean solution) {
+      this.height = height;
+      this.width = width;
+      this.bias = bias;
+      this.seed = seed;
+      this.solution = solution;
+    }
+
+    /**
+     * Reads the parameters of a request from its query.
+     *
+     * @param query the raw query, or null if there is none
+     * @param solution whether the request is for the solution
+     * @return the parameters
+     * @throws IllegalArgumentException if a parameter is missing or invalid
+     */
+    static Key parse(String query, boolean solution) throws IllegalArgumentException {
+      Map<String, String> params = new HashMap<>();
+      if (query != null) {
+        for (String pair : query.split("&")) {
+          int eq = pair.indexOf('=');
+          if (eq > 0) {
+            params.put(pair.substring(0, eq), pair.substring(eq + 1));
+          }
+        }
+      }
+
+      int height = Integer.parseInt(require(params, "height"));
+      int width = Integer.parseInt(require(params, "width"));
+      double bias = Double.parseDouble(require(params, "bias"));
+      long seed = Long.parseLong(require(params, "seed"));
+      if (height < 1 || width < 1) {
+        throw new IllegalArgumentException("Height and width must be positive.");
+      }
+      if ((long) height * width > GameServer.MAX_CELLS) {
+        throw new IllegalArgumentException("Maze cannot have more than " + GameServer.MAX_CELLS
+            + " cells.");
+      }
+      if (!(bias >= 0 && bias <= 1)) {
+        throw new IllegalArgumentException("Bias must be between 0 and 1.");
+      }
+      return new Key(height, width, bias, seed, solution);
+    }
+
+    /**
+     * Produces the value of a parameter.
+     *
+     * @param params the parameters
+     * @param name the name of the parameter
+     * @return the value
+     * @throws IllegalArgumentException if the parameter is missing
+     */
+    private static String require(Map<String, String> params, String name)
+        throws IllegalArgumentException {
+      String value = params.get(name);
+      if (value == null) {
+        throw new IllegalArgumentException("Missing parameter " + name + ".");
+      }
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return height == other.height && width == other.width
+          && Double.compare(bias, other.bias) == 0 && seed == other.seed
+          && solution == other.solution;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(height, width, bias, seed, solution);
+    }
+  }
+
+  /**
+   * Runs a server until it is killed. Takes the port, the number of threads and the size of the
+   * cache in megabytes, which default to 8080, the number of cores and 64.
+   *
+   * @param args the command line arguments
+   * @throws IOException if the port cannot be listened on
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    long cacheBytes = (args.length > 2 ? Long.parseLong(args[2]) : 64) << 20;
+    if (System.getProperty(NO_DELAY) == null) {
+      System.setProperty(NO_DELAY, "true");
+    }
+
+    MazeMetrics.register();
+    MazeHttpServer server = new MazeHttpServer(port, threads, cacheBytes);
+    server.start();
+    System.out.println("Listening on port " + server.getPort());
+  }
+}
@@ -0,0 +1,141 @@
+package server;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Represents a cache of encoded results bounded by their total size in bytes, evicting the least
+ * recently used results first. A result missing from the cache is computed by the first thread to
+ * ask for it, and any other thread asking for it meanwhile waits for that result rather than
+ * computing it again.
+ *
+ * @param <K> the type of the keys of results
+ */
+final class ResultCache<K> {
+
+  private final LinkedHashMap<K, byte[]> results = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<K, FutureTask<byte[]>> pending = new HashMap<>();
+  private final long capacity;
+  private long size = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  /**
+   * Constructs a new, empty {@code ResultCache} object.
+   *
+   * @param capacity the most bytes of results to keep
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  ResultCache(long capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Produces the result for the given key, computing and caching it if it is not cached. Results
+   * larger than the whole cache are returned without being cached.
+   *
+   * @param key the key of the result
+   * @param compute the computation of the result
+   * @return the result
+   * @throws RuntimeException if the result could not be computed, as thrown by the computation
+   */
+  byte[] get(K key, Supplier<byte[]> compute) throws RuntimeException {
+    FutureTask<byte[]> task;
+    boolean computing = false;
+    synchronized (this) {
+      byte[] result = results.get(key);
+      if (result != null) {
+        hits++;
+        return result;
+      }
+      misses++;
+      task = pending.get(key);
+      if (task == null) {
+        task = new FutureTask<>(compute::get);
+        pending.put(key, task);
+        computing = true;
+      }
+    }
+
+    if (computing) {
+      task.run();
+    }
+    try {
+      byte[] result = task.get();
+      if (computing) {
+        put(key, result);
+      }
+      return result;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException("Could not compute result.", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for result.", e);
+    } finally {
+      if (computing) {
+        synchronized (this) {
+          pending.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Caches a result, replacing any result cached for the same key and evicting the least recently
+   * used results until it fits. Results larger than the whole cache are not cached.
+   *
+   * @param key the key of the result
+   * @param result the result
+   */
+  synchronized void put(K key, byte[] result) {
+    if (result.length > capacity) {
+      return;
+    }
+    size += result.length;
+    byte[] old = results.put(key, result);
+    if (old != null) {
+      size -= old.length;
+    }
+    Iterator<byte[]> eldest = results.values().iterator();
+    while (size > capacity) {
+      size -= eldest.next().length;
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  synchronized long getEvictions() {
+    return evictions;
+  }
+
+  synchronized int getEntries() {
+    return results.size();
+  }
+
+  synchronized long getSize() {
+    return size;
+  }
+}
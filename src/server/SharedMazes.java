@@ -0,0 +1,157 @@
+package server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import model.Graph;
+import model.MazeStats;
+
+/**
+ * Represents the mazes in play on a server, shared between every session playing the same seed,
+ * size and bias. Each maze is generated once, by the first session to ask for it, while other
+ * sessions asking for it wait. It is dropped once the last session playing it moves on. Sessions
+ * play on a {@link Graph#share()} of the maze, so the maze itself is never changed after it is
+ * generated.
+ */
+final class SharedMazes {
+
+  private final Map<Key, Shared> mazes = new HashMap<>();
+  private final boolean diameterPlacement;
+  private int generated = 0;
+
+  /**
+   * Constructs a new {@code SharedMazes} object.
+   *
+   * @param diameterPlacement whether to place the start and target at the ends of the longest path
+   *     in each maze, rather than in opposite corners
+   */
+  SharedMazes(boolean diameterPlacement) {
+    this.diameterPlacement = diameterPlacement;
+  }
+
+  /**
+   * Claims a maze for a session, generating it if no session is playing it yet. Every maze
+   * claimed must be released.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @return the maze, once it has been generated
+   * @throws IllegalArgumentException if the maze cannot be generated
+   */
+  Shared acquire(int height, int width, double bias, long seed) throws IllegalArgumentException {
+    Shared shared;
+    synchronized (this) {
+      shared = mazes.computeIfAbsent(new Key(height, width, bias, seed), Shared::new);
+      shared.users++;
+    }
+    try {
+      shared.generate();
+    } catch (RuntimeException e) {
+      release(shared);
+      throw e;
+    }
+    return shared;
+  }
+
+  /**
+   * Gives up a session's claim on a maze, dropping the maze if no other session is playing it.
+   *
+   * @param shared the maze
+   */
+  synchronized void release(Shared shared) {
+    if (--shared.users == 0) {
+      mazes.remove(shared.key);
+    }
+  }
+
+  /**
+   * Produces the number of mazes in play.
+   *
+   * @return the number of distinct mazes claimed by at least one session
+   */
+  synchronized int size() {
+    return mazes.size();
+  }
+
+  /**
+   * Produces the number of mazes generated so far.
+   *
+   * @return the number of mazes generated
+   */
+  synchronized int getGenerated() {
+    return generated;
+  }
+
+  private static final class Key {
+
+    private final int height;
+    private final int width;
+    private final double bias;
+    private final long seed;
+
+    Key(int height, int width, double bias, long seed) {
+      this.height = height;
+      this.width = width;
+      this.bias = bias;
+      this.seed = seed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return height == other.height && width == other.width
+          && Double.compare(bias, other.bias) == 0 && seed == other.seed;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(height, width, bias, seed);
+    }
+  }
+
+  /**
+   * Represents a maze in play and its statistics, with the number of sessions playing it.
+   */
+  final class Shared {
+
+    private final Key key;
+    private int users = 0;
+    private Graph maze;
+    private MazeStats stats;
+
+    Shared(Key key) {
+      this.key = key;
+    }
+
+    /**
+     * Generates this maze if it has not been generated yet. Holds the lock of this maze alone
+     * while generating, so mazes for other keys are generated at the same time.
+     */
+    private synchronized void generate() {
+      if (maze != null) {
+        return;
+      }
+      Graph g = Graph.rectMazeBuilder().height(key.height).width(key.width).bias(key.bias)
+          .seed(key.seed).buildInstant();
+      stats = MazeStats.of(g, diameterPlacement);
+      maze = g;
+      synchronized (SharedMazes.this) {
+        generated++;
+      }
+    }
+
+    synchronized Graph getMaze() {
+      return maze;
+    }
+
+    synchronized MazeStats getStats() {
+      return stats;
+    }
+  }
+}
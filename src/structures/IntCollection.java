@@ -0,0 +1,35 @@
+package structures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a worklist of ints, kept as primitives so adding and removing items does not box or
+ * allocate. The order items are removed in is decided by the implementation.
+ */
+public interface IntCollection {
+
+  boolean isEmpty();
+
+  void add(int item);
+
+  /**
+   * Removes the next item from this collection.
+   *
+   * @return the item
+   * @throws NoSuchElementException if this collection is empty
+   */
+  int remove() throws NoSuchElementException;
+
+  /**
+   * Produces the next item in this collection without removing it.
+   *
+   * @return the item
+   * @throws NoSuchElementException if this collection is empty
+   */
+  int peek() throws NoSuchElementException;
+
+  /**
+   * Removes every item from this collection, keeping the space it has grown to for reuse.
+   */
+  void clear();
+}
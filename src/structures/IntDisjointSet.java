@@ -0,0 +1,84 @@
+package structures;
+
+/**
+ * Represents a disjoint set (aka Union/Find) over the integers from 0 up to a given size. Uses
+ * union by rank and path halving, so any sequence of operations runs in near-linear time.
+ */
+public class IntDisjointSet {
+
+  private final int[] parents;
+  private final byte[] ranks;
+
+  /**
+   * Constructs a new {@code IntDisjointSet} object setting all members representatives
+   * to themselves.
+   *
+   * @param size the number of members, which are the integers from 0 to size - 1
+   * @throws IllegalArgumentException if the size is negative
+   */
+  public IntDisjointSet(int size) throws IllegalArgumentException {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative.");
+    }
+    parents = new int[size];
+    ranks = new byte[size];
+    for (int i = 0; i < size; i++) {
+      parents[i] = i;
+    }
+  }
+
+  /**
+   * Puts every member of this disjoint set back in a set of its own.
+   */
+  public void clear() {
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+      ranks[i] = 0;
+    }
+  }
+
+  /**
+   * Unions the sets of two given members of this disjoint set. The representative of the set
+   * with the higher rank becomes the representative of the union.
+   *
+   * @param member1 the first member
+   * @param member2 the second member
+   * @return true if the members were in different sets, false if they were already in the same set
+   * @throws IllegalArgumentException if either of the given members do not exist in the disjoint set
+   */
+  public boolean union(int member1, int member2) throws IllegalArgumentException {
+    int rep1 = find(member1);
+    int rep2 = find(member2);
+    if (rep1 == rep2) {
+      return false;
+    }
+    if (ranks[rep1] < ranks[rep2]) {
+      parents[rep1] = rep2;
+    } else if (ranks[rep1] > ranks[rep2]) {
+      parents[rep2] = rep1;
+    } else {
+      parents[rep2] = rep1;
+      ranks[rep1]++;
+    }
+    return true;
+  }
+
+  /**
+   * Produces the base representative of the given member, pointing every other member on the way
+   * to the representative at its grandparent.
+   *
+   * @param member the member whose representative is being sought
+   * @return the representative of the given member
+   * @throws IllegalArgumentException if the given member does not exist in the disjoint set
+   */
+  public int find(int member) throws IllegalArgumentException {
+    if (member < 0 || member >= parents.length) {
+      throw new IllegalArgumentException("Member does not exist in disjoint set.");
+    }
+    while (parents[member] != member) {
+      parents[member] = parents[parents[member]];
+      member = parents[member];
+    }
+    return member;
+  }
+}
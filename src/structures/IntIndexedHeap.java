@@ -0,0 +1,148 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a priority queue of the ints from 0 up to a given size, each with a long key. Items
+ * are removed lowest key first. The position of each item in the heap is indexed, so the key of
+ * an item already in the queue can be lowered in O(log n) time. Every array is allocated up
+ * front, so no operation allocates.
+ */
+public class IntIndexedHeap {
+
+  private static final int ABSENT = -1;
+
+  private final int[] heap;
+  private final int[] positions;
+  private final long[] keys;
+  private int size = 0;
+
+  /**
+   * Constructs a new, empty {@code IntIndexedHeap} object.
+   *
+   * @param capacity the number of items, which are the integers from 0 to capacity - 1
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  public IntIndexedHeap(int capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    heap = new int[capacity];
+    positions = new int[capacity];
+    keys = new long[capacity];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Determines whether the given item is in this heap.
+   *
+   * @param item the item
+   * @return true if the item is in this heap, false if not
+   * @throws IllegalArgumentException if the item is out of range
+   */
+  public boolean contains(int item) throws IllegalArgumentException {
+    checkItem(item);
+    return positions[item] != ABSENT;
+  }
+
+  /**
+   * Adds an item with the given key to this heap, or lowers its key if it is already in the heap
+   * with a higher key.
+   *
+   * @param item the item
+   * @param key the key of the item
+   * @return true if the item was added or its key lowered, false if it already had a key as low
+   * @throws IllegalArgumentException if the item is out of range
+   */
+  public boolean offer(int item, long key) throws IllegalArgumentException {
+    checkItem(item);
+    int i = positions[item];
+    if (i == ABSENT) {
+      i = size++;
+    } else if (keys[item] <= key) {
+      return false;
+    }
+
+    keys[item] = key;
+    while (i > 0 && keys[heap[(i - 1) / 2]] > key) {
+      move(heap[(i - 1) / 2], i);
+      i = (i - 1) / 2;
+    }
+    move(item, i);
+    return true;
+  }
+
+  /**
+   * Produces the lowest key in this heap.
+   *
+   * @return the key of the item that would be removed next
+   * @throws NoSuchElementException if this heap is empty
+   */
+  public long peekKey() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Heap is empty.");
+    }
+    return keys[heap[0]];
+  }
+
+  /**
+   * Removes the item with the lowest key from this heap.
+   *
+   * @return the item
+   * @throws NoSuchElementException if this heap is empty
+   */
+  public int remove() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Heap is empty.");
+    }
+
+    int item = heap[0];
+    positions[item] = ABSENT;
+    int last = heap[--size];
+    if (size == 0) {
+      return item;
+    }
+    int i = 0;
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+        child++;
+      }
+      if (keys[heap[child]] >= keys[last]) {
+        break;
+      }
+      move(heap[child], i);
+      i = child;
+    }
+    move(last, i);
+    return item;
+  }
+
+  /**
+   * Places an item at a given position in the heap.
+   *
+   * @param item the item
+   * @param i the position
+   */
+  private void move(int item, int i) {
+    heap[i] = item;
+    positions[item] = i;
+  }
+
+  /**
+   * Checks that the given item is in the range of this heap.
+   *
+   * @param item the item
+   * @throws IllegalArgumentException if the item is out of range
+   */
+  private void checkItem(int item) throws IllegalArgumentException {
+    if (item < 0 || item >= positions.length) {
+      throw new IllegalArgumentException("Item out of range.");
+    }
+  }
+}
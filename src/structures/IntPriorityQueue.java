@@ -0,0 +1,85 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a priority queue of non-negative ints, each with a non-negative int priority. Items
+ * are removed lowest priority first. Backed by a binary heap in a growable primitive array, so
+ * adding and removing items does not allocate.
+ */
+public class IntPriorityQueue {
+
+  private long[] heap;
+  private int size = 0;
+
+  /**
+   * Constructs a new, empty {@code IntPriorityQueue} object.
+   *
+   * @param capacity the number of items the queue can hold before it has to grow
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  public IntPriorityQueue(int capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    heap = new long[Math.max(1, capacity)];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Adds an item with a given priority to this queue.
+   *
+   * @param item the item
+   * @param priority the priority of the item
+   * @throws IllegalArgumentException if the item or priority is negative
+   */
+  public void add(int item, int priority) throws IllegalArgumentException {
+    if (item < 0 || priority < 0) {
+      throw new IllegalArgumentException("Item and priority cannot be negative.");
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, heap.length * 2);
+    }
+
+    long entry = ((long) priority << 32) | item;
+    int i = size++;
+    while (i > 0 && heap[(i - 1) / 2] > entry) {
+      heap[i] = heap[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    heap[i] = entry;
+  }
+
+  /**
+   * Removes the item with the lowest priority from this queue.
+   *
+   * @return the item
+   * @throws NoSuchElementException if this queue is empty
+   */
+  public int remove() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+
+    int item = (int) heap[0];
+    long last = heap[--size];
+    int i = 0;
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        child++;
+      }
+      if (heap[child] >= last) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return item;
+  }
+}
@@ -0,0 +1,84 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a first in, first out queue of ints, backed by a ring buffer in a growable primitive
+ * array. The capacity is kept a power of two, so positions wrap with a mask rather than a
+ * division.
+ */
+public class IntQueue implements IntCollection {
+
+  private int[] contents;
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * Constructs a new, empty {@code IntQueue} object with a small initial capacity.
+   */
+  public IntQueue() {
+    this(16);
+  }
+
+  /**
+   * Constructs a new, empty {@code IntQueue} object.
+   *
+   * @param capacity the number of items the queue can hold before it has to grow
+   * @throws IllegalArgumentException if the capacity is negative or too large
+   */
+  public IntQueue(int capacity) throws IllegalArgumentException {
+    if (capacity < 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity.");
+    }
+    contents = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void add(int item) {
+    if (size == contents.length) {
+      grow();
+    }
+    contents[(head + size++) & (contents.length - 1)] = item;
+  }
+
+  @Override
+  public int remove() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+    int item = contents[head];
+    head = (head + 1) & (contents.length - 1);
+    size--;
+    return item;
+  }
+
+  @Override
+  public int peek() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty.");
+    }
+    return contents[head];
+  }
+
+  @Override
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Doubles the capacity of this queue, unwrapping its items to the front of the new array.
+   */
+  private void grow() {
+    int[] grown = Arrays.copyOfRange(contents, head, head + contents.length * 2);
+    System.arraycopy(contents, 0, grown, contents.length - head, head);
+    contents = grown;
+    head = 0;
+  }
+}
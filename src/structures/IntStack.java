@@ -0,0 +1,67 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a last in, first out stack of ints, backed by a growable primitive array.
+ */
+public class IntStack implements IntCollection {
+
+  private int[] contents;
+  private int size = 0;
+
+  /**
+   * Constructs a new, empty {@code IntStack} object with a small initial capacity.
+   */
+  public IntStack() {
+    this(16);
+  }
+
+  /**
+   * Constructs a new, empty {@code IntStack} object.
+   *
+   * @param capacity the number of items the stack can hold before it has to grow
+   * @throws IllegalArgumentException if the capacity is negative
+   */
+  public IntStack(int capacity) throws IllegalArgumentException {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    contents = new int[Math.max(1, capacity)];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void add(int item) {
+    if (size == contents.length) {
+      contents = Arrays.copyOf(contents, contents.length * 2);
+    }
+    contents[size++] = item;
+  }
+
+  @Override
+  public int remove() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Stack is empty.");
+    }
+    return contents[--size];
+  }
+
+  @Override
+  public int peek() throws NoSuchElementException {
+    if (size == 0) {
+      throw new NoSuchElementException("Stack is empty.");
+    }
+    return contents[size - 1];
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+  }
+}
@@ -0,0 +1,165 @@
+package view;
+
+import java.util.Arrays;
+
+/**
+ * Represents the cells of a maze redrawn since it was last repainted, as a bitmap of square tiles
+ * of {@value #TILE} by {@value #TILE} cells. Marking a cell costs one array lookup, and however
+ * many cells a frame redraws the region never holds more than one bit per tile, so the region
+ * stays useful when a frame runs thousands of steps. Cells redrawn far apart are repainted as
+ * separate runs of tiles rather than their union. Once the runs are too many to paint one by one,
+ * or cover most of the maze, the whole maze is repainted instead.
+ */
+final class DirtyRegion {
+
+  /**
+   * The width and height of each tile in cells.
+   */
+  static final int TILE = 8;
+
+  /**
+   * The most runs of tiles painted one by one before the whole maze is repainted instead.
+   */
+  static final int MAX_RUNS = 32;
+
+  /**
+   * Accepts a run of tiles to repaint.
+   */
+  @FunctionalInterface
+  interface RunConsumer {
+
+    /**
+     * Accepts a run of tiles, clipped to the maze.
+     *
+     * @param x the column of the first cell of the run
+     * @param y the row of the first cell of the run
+     * @param width the width of the run in cells
+     * @param height the height of the run in cells
+     */
+    void accept(int x, int y, int width, int height);
+  }
+
+  private final int columns;
+  private final int rows;
+  private final int tileColumns;
+  private final boolean[] tiles;
+  private final int[] marked;
+  private int size = 0;
+  private int runs = 0;
+  private boolean sorted = true;
+  private boolean whole = false;
+
+  /**
+   * Constructs a new {@code DirtyRegion} object over a maze of the given size, with nothing
+   * marked.
+   *
+   * @param columns the width of the maze in cells
+   * @param rows the height of the maze in cells
+   */
+  DirtyRegion(int columns, int rows) {
+    this.columns = columns;
+    this.rows = rows;
+    this.tileColumns = (columns + TILE - 1) / TILE;
+    this.tiles = new boolean[tileColumns * ((rows + TILE - 1) / TILE)];
+    this.marked = new int[tiles.length];
+  }
+
+  /**
+   * Marks the given cell as needing a repaint.
+   *
+   * @param x the column of the cell
+   * @param y the row of the cell
+   */
+  void add(int x, int y) {
+    int tile = y / TILE * tileColumns + x / TILE;
+    if (whole || tiles[tile]) {
+      return;
+    }
+    tiles[tile] = true;
+    // a run starts here unless the tile to the left in the same row is already marked
+    if (tile % tileColumns == 0 || !tiles[tile - 1]) {
+      runs++;
+    }
+    // and joins the run to the right, if there is one
+    if (tile % tileColumns != tileColumns - 1 && tiles[tile + 1]) {
+      runs--;
+    }
+    if (size > 0 && marked[size - 1] > tile) {
+      sorted = false;
+    }
+    marked[size++] = tile;
+  }
+
+  /**
+   * Marks the whole maze as needing a repaint.
+   */
+  void markWhole() {
+    clearTiles();
+    whole = true;
+  }
+
+  /**
+   * Determines whether the whole maze should be repainted, either because it was marked whole or
+   * because the marked tiles make too many runs or cover over half of the maze.
+   *
+   * @return true if the whole maze should be repainted, false if only the runs of this region
+   *     should be
+   */
+  boolean isWhole() {
+    return whole || runs > MAX_RUNS || size * 2 > tiles.length;
+  }
+
+  /**
+   * Gets the number of runs of tiles in this region.
+   *
+   * @return the number of runs
+   */
+  int runs() {
+    return runs;
+  }
+
+  /**
+   * Passes every horizontal run of marked tiles to the given consumer, from the top left.
+   *
+   * @param consumer the consumer of the runs
+   */
+  void forEachRun(RunConsumer consumer) {
+    if (!sorted) {
+      Arrays.sort(marked, 0, size);
+      sorted = true;
+    }
+    int i = 0;
+    while (i < size) {
+      int first = marked[i];
+      int last = first;
+      while (i + 1 < size && marked[i + 1] == last + 1 && (last + 1) % tileColumns != 0) {
+        last = marked[++i];
+      }
+      i++;
+      int x = first % tileColumns * TILE;
+      int y = first / tileColumns * TILE;
+      consumer.accept(x, y, Math.min(columns, (last % tileColumns + 1) * TILE) - x,
+          Math.min(rows, y + TILE) - y);
+    }
+  }
+
+  /**
+   * Empties this region, once it has been repainted.
+   */
+  void clear() {
+    clearTiles();
+    whole = false;
+  }
+
+  /**
+   * Unmarks every marked tile, touching only those.
+   */
+  private void clearTiles() {
+    for (int i = 0; i < size; i++) {
+      tiles[marked[i]] = false;
+    }
+    size = 0;
+    runs = 0;
+    sorted = true;
+  }
+}
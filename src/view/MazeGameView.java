@@ -2,8 +2,8 @@ package view;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.event.KeyListener;
-import java.awt.image.BufferedImage;
 
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
@@ -11,21 +11,23 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
-import model.ColorScheme;
-import model.Direction;
+import metrics.MazeMetrics;
+import metrics.RenderEvent;
+
 import model.MazeGameModelState;
-import model.Vertex;
 
 public final class MazeGameView {
 
   private final MazeGameModelState model;
   private final JFrame component;
-  private final JLabel layer = new JLabel();
+  private final JLabel layer = new MazeLayer();
   private final JLabel label = new JLabel();
-  private BufferedImage img;
-  private static final int BORDER_WIDTH = 12;
-  private int cellSize;
-  private int exdCellSize;
+  private final MazeRenderer renderer;
+  private final DirtyRegion dirty;
+  private int flushed;
+  private int unpainted;
+  private long frameStart;
+  private static final int BORDER_WIDTH = MazeRenderer.BORDER_WIDTH;
 
   public MazeGameView(MazeGameModelState model, KeyListener kl, int maxWidth, int maxHeight) throws IllegalArgumentException {
     if (model == null) {
@@ -41,8 +43,13 @@ public final class MazeGameView {
     // max the extended cell size could be given the maxWidth
     int wBasedSize = (maxWidth - BORDER_WIDTH) / model.getMazeWidth(); 
     
-    exdCellSize = Math.min(hBasedSize, wBasedSize);
-    cellSize = exdCellSize - 2;
+    int exdCellSize = Math.min(hBasedSize, wBasedSize);
+    if (exdCellSize < 3) {
+      throw new IllegalArgumentException("Maze is too large to display in the given dimensions.");
+    }
+    renderer = new MazeRenderer(model, exdCellSize);
+    dirty = new DirtyRegion(model.getMazeWidth(), model.getMazeHeight());
+    layer.setIcon(new ImageIcon(renderer.getImage()));
     
     component.setTitle("Maze Game");
     component.setSize(maxWidth, maxHeight);
@@ -63,68 +70,92 @@ public final class MazeGameView {
   }
 
   public void renderGame() {
-    int height = model.getMazeHeight();
-    int width = model.getMazeWidth();
-    int heightPixels = model.getMazeHeight() * exdCellSize;
-    int widthPixels = model.getMazeWidth() * exdCellSize;
-    
-    img = new BufferedImage(widthPixels + BORDER_WIDTH, heightPixels + BORDER_WIDTH, BufferedImage.TYPE_INT_RGB);
-    BufferedImage brd = img.getSubimage(BORDER_WIDTH / 2 + 1, BORDER_WIDTH / 2 + 1, widthPixels, heightPixels);
+    startFrame();
+    renderer.renderGame();
+    dirty.clear();
+    flushed = 0;
+    unpainted = model.getMazeHeight() * model.getMazeWidth();
+    component.repaint();
+  }
+  
+  public void updateColor(int v, Color c) {
+    int x = v % model.getMazeWidth();
+    int y = v / model.getMazeWidth();
+    renderer.renderFill(x, y, c);
     
-    Vertex curr = model.getCurrentVertex();
-    Vertex target = model.getTargetVertex();
+    markDirty(x, y);
+  }
+  
+  /**
+   * Redraws a single cell of the maze as it currently is. The cell is not repainted on screen
+   * until {@link #flushRepaints()} is called.
+   * 
+   * @param v the index of the vertex of the cell
+   */
+  public void renderCell(int v) {
+    int x = v % model.getMazeWidth();
+    int y = v / model.getMazeWidth();
+    renderer.renderCell(x, y);
     
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        Vertex vr = model.temp().get(j + i * width);
-        Color body;
-        if (vr == curr) {
-          body = ColorScheme.USER_CURSOR;
-        } else if (vr == target) {
-          body = ColorScheme.TARGET;
-        } else {
-          body = vr.getColor();
-        }
-        Color rBorder = ColorScheme.LINES;
-        Color bBorder = ColorScheme.LINES;
-        if (vr.hasEdgePointingIn(Direction.DOWN)) {
-          bBorder = body;
-        }
-        if (vr.hasEdgePointingIn(Direction.RIGHT)) {
-          rBorder = body;
-        }
-        for (int y = exdCellSize * i; y <= cellSize + 1 + exdCellSize * i; y++) {
-          for (int x = exdCellSize * j; x <= cellSize + 1 + exdCellSize * j; x++) {
-            if (y >= cellSize + exdCellSize * i) {
-              if (x >= cellSize + exdCellSize * j) {
-                brd.setRGB(x, y, ColorScheme.LINES.getRGB());
-                continue;
-              }
-              brd.setRGB(x, y, bBorder.getRGB());
-            } else if (x >= cellSize + exdCellSize * j) {
-              brd.setRGB(x, y, rBorder.getRGB());
-            } else {
-              brd.setRGB(x, y, body.getRGB());
-            }
-          }
-        }
-      }
+    markDirty(x, y);
+  }
+  
+  /**
+   * Repaints every cell redrawn since the last flush. Cells redrawn close together are repainted
+   * as one run of tiles, and distant ones as separate runs painted straight away, since Swing
+   * would otherwise repaint the union of every rectangle requested. Past
+   * {@link DirtyRegion#MAX_RUNS} runs, or once they cover most of the maze, the whole maze is
+   * repainted in one request. Must be called on the event thread.
+   * 
+   * @return the number of cells redrawn since the last flush
+   */
+  public int flushRepaints() {
+    int cells = flushed;
+    if (dirty.isWhole()) {
+      layer.repaint();
+    } else {
+      dirty.forEachRun(this::paintCells);
     }
-    
-    layer.setIcon(new ImageIcon(img));
-    component.repaint();
+    dirty.clear();
+    flushed = 0;
+    return cells;
   }
   
-  public void updateColor(Vertex v, Color c) {
-    for (int i = 0; i < model.getMazeHeight(); i++) {
-      for (int j = 0; j < model.getMazeWidth(); j++) {
-        if (model.temp().get(i * model.getMazeWidth() + j) == v) {
-          renderFill(j, i, c);
-        }
-      }
+  /**
+   * Paints the given block of cells straight away.
+   * 
+   * @param x the column of the first cell
+   * @param y the row of the first cell
+   * @param width the width of the block in cells
+   * @param height the height of the block in cells
+   */
+  private void paintCells(int x, int y, int width, int height) {
+    int left = renderer.cellPosition(x);
+    int top = renderer.cellPosition(y);
+    layer.paintImmediately(left, top, renderer.cellPosition(x + width) - left,
+        renderer.cellPosition(y + height) - top);
+  }
+  
+  /**
+   * Adds the given cell to the area to repaint on the next flush.
+   * 
+   * @param x the column of the cell
+   * @param y the row of the cell
+   */
+  private void markDirty(int x, int y) {
+    startFrame();
+    flushed++;
+    unpainted++;
+    dirty.add(x, y);
+  }
+  
+  /**
+   * Notes the time the next frame started at, if no cell has been redrawn since the last paint.
+   */
+  private void startFrame() {
+    if (unpainted == 0) {
+      frameStart = System.nanoTime();
     }
-    
-    component.repaint();
   }
   
   public void renderMessage(String msg) throws IllegalArgumentException {
@@ -134,33 +165,31 @@ public final class MazeGameView {
     
     label.setText(msg);
   }
-  
-  private void renderFill(int x, int y, Color c) {
-    BufferedImage brd = img.getSubimage(7, 7, model.getMazeWidth() * exdCellSize, model.getMazeHeight() * exdCellSize);
-    Vertex vr = model.temp().get(y * model.getMazeWidth() + x);
-    
-    for (int i = exdCellSize * y; i <= cellSize + 1 + exdCellSize * y; i++) {
-      for (int j = exdCellSize * x; j <= cellSize + 1 + exdCellSize * x; j++) {
-        Color rBorder = ColorScheme.LINES;
-        Color bBorder = ColorScheme.LINES;
-        if (vr.hasEdgePointingIn(Direction.DOWN)) {
-          bBorder = c;
-        }
-        if (vr.hasEdgePointingIn(Direction.RIGHT)) {
-          rBorder = c;
-        }
-        if (i >= cellSize + exdCellSize * y) {
-          if (j >= cellSize + exdCellSize * x) {
-            brd.setRGB(j, i, ColorScheme.LINES.getRGB());
-            continue;
-          }
-          brd.setRGB(j, i, bBorder.getRGB());
-        } else if (j >= cellSize + exdCellSize * x) {
-          brd.setRGB(j, i, rBorder.getRGB());
-        } else {
-          brd.setRGB(j, i, c.getRGB());
-        }
+
+  /**
+   * Represents the label the image of the maze is painted in, timing each paint. A frame lasts from
+   * the first cell redrawn after a paint until the next paint finishes, however many ticks and
+   * repaint requests are coalesced in between.
+   */
+  private final class MazeLayer extends JLabel {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      RenderEvent event = new RenderEvent();
+      event.begin();
+      super.paintComponent(g);
+      
+      if (unpainted > 0) {
+        MazeMetrics.get().recordFrame(unpainted, System.nanoTime() - frameStart);
+      }
+      if (event.shouldCommit()) {
+        event.phase = "paint";
+        event.cells = unpainted;
+        event.commit();
       }
+      unpainted = 0;
     }
   }
 }
@@ -0,0 +1,156 @@
+package view;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import metrics.RenderEvent;
+
+import model.ColorScheme;
+import model.Direction;
+import model.Graph;
+import model.MazeGameModelState;
+
+/**
+ * Draws the maze of a maze game into an image. Needs no display, so it can run headless. Draws
+ * straight into the pixel array backing a single image, which is reused for every frame.
+ */
+public final class MazeRenderer {
+
+  static final int BORDER_WIDTH = 12;
+  private static final int ORIGIN = BORDER_WIDTH / 2 + 1;
+  private final MazeGameModelState model;
+  private final BufferedImage img;
+  private final int[] pixels;
+  private final int stride;
+  private final int cellSize;
+  private final int exdCellSize;
+
+  /**
+   * Constructs a new {@code MazeRenderer} object.
+   * 
+   * @param model the model of the game to draw
+   * @param exdCellSize the size of each cell in pixels, including its right and bottom borders
+   * @throws IllegalArgumentException if the model is null or the cells are too small to draw
+   */
+  public MazeRenderer(MazeGameModelState model, int exdCellSize) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null.");
+    }
+    if (exdCellSize < 3) {
+      throw new IllegalArgumentException("Cells must be at least 3 pixels.");
+    }
+    
+    this.model = model;
+    this.exdCellSize = exdCellSize;
+    this.cellSize = exdCellSize - 2;
+    this.img = new BufferedImage(model.getMazeWidth() * exdCellSize + BORDER_WIDTH,
+        model.getMazeHeight() * exdCellSize + BORDER_WIDTH, BufferedImage.TYPE_INT_RGB);
+    this.pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+    this.stride = img.getWidth();
+  }
+
+  /**
+   * Draws the whole maze.
+   * 
+   * @return the image the maze was drawn into
+   */
+  public BufferedImage renderGame() {
+    RenderEvent event = new RenderEvent();
+    event.begin();
+    for (int i = 0; i < model.getMazeHeight(); i++) {
+      for (int j = 0; j < model.getMazeWidth(); j++) {
+        renderCell(j, i);
+      }
+    }
+    
+    if (event.shouldCommit()) {
+      event.phase = "draw";
+      event.cells = model.getMazeHeight() * model.getMazeWidth();
+      event.commit();
+    }
+    return img;
+  }
+  
+  /**
+   * Draws a single cell of the maze in its current color, or the cursor or target color if it is
+   * the current or target cell.
+   * 
+   * @param x the column of the cell
+   * @param y the row of the cell
+   */
+  public void renderCell(int x, int y) {
+    Graph maze = model.getMaze();
+    int vr = x + y * model.getMazeWidth();
+    Color body;
+    if (vr == model.getCurrentVertex()) {
+      body = ColorScheme.USER_CURSOR;
+    } else if (vr == model.getTargetVertex()) {
+      body = ColorScheme.TARGET;
+    } else {
+      body = maze.getColor(vr);
+    }
+    drawCell(maze, x, y, body);
+  }
+  
+  /**
+   * Draws a single cell of the maze in the given color.
+   * 
+   * @param x the column of the cell
+   * @param y the row of the cell
+   * @param c the color to fill the cell with
+   */
+  public void renderFill(int x, int y, Color c) {
+    drawCell(model.getMaze(), x, y, c);
+  }
+  
+  /**
+   * Produces the pixel a column or row of cells starts at in the image, including the right or
+   * bottom borders of the cells before it. Cells are square, so this serves both.
+   * 
+   * @param i the column or row
+   * @return the position in pixels
+   */
+  public int cellPosition(int i) {
+    return ORIGIN + exdCellSize * i;
+  }
+  
+  /**
+   * Produces the image the maze is drawn into. The same image is drawn into every time.
+   * 
+   * @return the image
+   */
+  public BufferedImage getImage() {
+    return img;
+  }
+  
+  /**
+   * Draws a cell and its right and bottom borders straight into the pixels of the image, a row
+   * of pixels at a time. The borders take the color of the cell where the cell has a passage
+   * through them.
+   * 
+   * @param maze the maze
+   * @param x the column of the cell
+   * @param y the row of the cell
+   * @param c the color of the cell
+   */
+  private void drawCell(Graph maze, int x, int y, Color c) {
+    int vr = y * model.getMazeWidth() + x;
+    int body = c.getRGB();
+    int lines = ColorScheme.LINES.getRGB();
+    int mask = maze.getEdgeMask(vr);
+    int rBorder = (mask & Direction.RIGHT.bit()) != 0 ? body : lines;
+    int bBorder = (mask & Direction.DOWN.bit()) != 0 ? body : lines;
+    
+    int start = (ORIGIN + exdCellSize * y) * stride + ORIGIN + exdCellSize * x;
+    for (int i = 0; i < cellSize; i++, start += stride) {
+      Arrays.fill(pixels, start, start + cellSize, body);
+      Arrays.fill(pixels, start + cellSize, start + exdCellSize, rBorder);
+    }
+    for (int i = cellSize; i < exdCellSize; i++, start += stride) {
+      Arrays.fill(pixels, start, start + cellSize, bBorder);
+      Arrays.fill(pixels, start + cellSize, start + exdCellSize, lines);
+    }
+  }
+}
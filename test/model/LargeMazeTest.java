@@ -0,0 +1,129 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Generates and solves mazes of 10^7 cells through the game model, checking the memory budget
+ * documented on {@link Graph}. What a maze keeps is checked from the arrays its objects hold,
+ * rather than from the heap in use, which depends on when garbage is collected. The test JVM's
+ * heap is capped at 256MB, so the peak of about 15 bytes per cell while generating is enforced by
+ * the heap itself.
+ */
+class LargeMazeTest {
+
+  private static final int HEIGHT = 2500;
+  private static final int WIDTH = 4000;
+  private static final int CELLS = HEIGHT * WIDTH;
+
+  @Test
+  @Timeout(value = 2, unit = TimeUnit.MINUTES)
+  void buildsAndSolvesTenMillionCells() {
+    RectMazeGameModel game = new RectMazeGameModel(HEIGHT, WIDTH, 0.5);
+    Graph.RectMazeBuilder builder = game.startGame();
+    Graph maze = builder.getGraph();
+    assertEquals(CELLS, maze.numVertices());
+
+    // 2 bytes per cell for the graph and 4 for the edges still to be built
+    long generated = arrayBytes(maze) + arrayBytes(builder);
+    assertTrue(generated <= 6L * CELLS, "generated maze keeps " + generated + " bytes");
+
+    while (builder.hasNextBuild()) {
+      builder.nextBuild();
+    }
+    assertPerfect(maze);
+
+    game.setFreeToMove(true);
+    SearchUtil search = game.bfs();
+    search.instantSearch();
+    int length = 0;
+    while (search.hasNextReconstruction()) {
+      search.incrementReconstruction();
+      length++;
+    }
+    assertEquals(game.getStats().getSolutionLength(), length);
+    assertTrue(game.getStats().getDiameter() >= length);
+  }
+
+  @Test
+  @Timeout(value = 2, unit = TimeUnit.MINUTES)
+  void builtMazeCostsTwoBytesPerCell() {
+    Graph maze = Graph.rectMazeBuilder().height(HEIGHT).width(WIDTH).seed(1).buildInstant();
+    assertPerfect(maze);
+    long built = arrayBytes(maze);
+    assertTrue(built <= 2L * CELLS, "built maze keeps " + built + " bytes");
+  }
+
+  /**
+   * Checks that the given maze is a spanning tree: it has one edge fewer than it has cells, and
+   * every cell can be reached, which {@link MazeStats} checks as it searches.
+   *
+   * @param maze the maze
+   */
+  private static void assertPerfect(Graph maze) {
+    int n = maze.numVertices();
+    long ends = 0;
+    for (int v = 0; v < n; v++) {
+      ends += Integer.bitCount(maze.getEdgeMask(v));
+    }
+    assertEquals(2L * (n - 1), ends);
+    assertDoesNotThrow(() -> MazeStats.of(maze, false));
+  }
+
+  /**
+   * Produces the bytes held in the primitive arrays of the given object's own fields, which is
+   * where every per-cell cost of a maze lives.
+   *
+   * @param o the object
+   * @return the total length in bytes of the primitive arrays the object refers to
+   */
+  private static long arrayBytes(Object o) {
+    long bytes = 0;
+    for (Field field : o.getClass().getDeclaredFields()) {
+      Class<?> type = field.getType();
+      if (Modifier.isStatic(field.getModifiers()) || !type.isArray()
+          || !type.getComponentType().isPrimitive()) {
+        continue;
+      }
+      field.setAccessible(true);
+      Object array;
+      try {
+        array = field.get(o);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+      if (array != null) {
+        bytes += (long) Array.getLength(array) * elementBytes(type.getComponentType());
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Produces the size of an element of a primitive array.
+   *
+   * @param type the primitive type of the elements
+   * @return the size of an element in bytes
+   */
+  private static int elementBytes(Class<?> type) {
+    if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    return 8;
+  }
+}
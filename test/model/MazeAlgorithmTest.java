@@ -0,0 +1,70 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import structures.IntDisjointSet;
+
+/**
+ * Generates mazes with every algorithm, including single rows, single columns and both extremes of
+ * bias, and checks that each is a spanning tree of its grid, however it is produced.
+ */
+class MazeAlgorithmTest {
+
+  private static final int[][] SIZES = {{1, 1}, {1, 23}, {23, 1}, {2, 2}, {17, 29}};
+  private static final double[] BIASES = {0, 0.5, 1};
+
+  @Test
+  void everyAlgorithmMakesASpanningTree() {
+    for (String name : MazeAlgorithm.NAMES) {
+      MazeAlgorithm algorithm = MazeAlgorithm.named(name);
+      for (int[] size : SIZES) {
+        for (double bias : BIASES) {
+          String what = name + ", " + size[0] + " x " + size[1] + ", bias " + bias;
+          long seed = size[0] * 31L + size[1];
+
+          Graph graph = new Graph(size[0], size[1], bias);
+          int[] edges = algorithm.generate(graph, seed, null);
+          assertEquals(size[0] * size[1] - 1, edges.length, what);
+          IntDisjointSet trees = new IntDisjointSet(size[0] * size[1]);
+          for (int edge : edges) {
+            assertTrue(trees.union(graph.edgeComesFrom(edge), graph.edgeGoesTo(edge)),
+                what + ": cycle through edge " + edge);
+          }
+
+          Graph carved = new Graph(size[0], size[1], bias);
+          algorithm.carve(carved, seed, null);
+          Graph added = new Graph(size[0], size[1], bias);
+          for (int edge : edges) {
+            added.addEdge(added.edgeComesFrom(edge), added.edgePointsIn(edge));
+          }
+          assertArrayEquals(added.edgeMasks(), carved.edgeMasks(), what + ": carved differently");
+        }
+      }
+    }
+  }
+
+  @Test
+  void primMakesTheSameMazeAsKruskal() {
+    for (double bias : BIASES) {
+      int[] kruskal = MazeAlgorithm.kruskal().generate(new Graph(41, 67, bias), 1234, null);
+      int[] prim = MazeAlgorithm.prim().generate(new Graph(41, 67, bias), 1234, null);
+      Arrays.sort(kruskal);
+      Arrays.sort(prim);
+      assertArrayEquals(kruskal, prim, "bias " + bias);
+    }
+  }
+
+  @Test
+  void namesAreCaseInsensitiveAndChecked() {
+    assertTrue(MazeAlgorithm.named("Binary-Tree") instanceof BinaryTreeAlgorithm);
+    assertThrows(IllegalArgumentException.class, () -> MazeAlgorithm.named("eller"));
+    assertThrows(IllegalArgumentException.class, () -> MazeAlgorithm.named(null));
+  }
+}
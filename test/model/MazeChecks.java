@@ -0,0 +1,71 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Answers questions about mazes the slow and obvious way, to check the answers of the classes
+ * under test against.
+ */
+final class MazeChecks {
+
+  private MazeChecks() {
+  }
+
+  /**
+   * Generates a maze with the default algorithm.
+   *
+   * @param height the height of the maze
+   * @param width the width of the maze
+   * @param bias the bias of the maze
+   * @param seed the seed of the maze
+   * @return the maze
+   */
+  static Graph maze(int height, int width, double bias, long seed) {
+    return Graph.rectMazeBuilder().height(height).width(width).bias(bias).seed(seed)
+        .buildInstant();
+  }
+
+  /**
+   * Searches breadth first from the given cell.
+   *
+   * @param maze the maze
+   * @param from the cell to search from
+   * @return the length of the shortest path from the given cell to every cell, or -1 for cells
+   *     that cannot be reached
+   */
+  static int[] distances(Graph maze, int from) {
+    int[] distance = new int[maze.numVertices()];
+    Arrays.fill(distance, -1);
+    int[] queue = new int[maze.numVertices()];
+    distance[from] = 0;
+    queue[0] = from;
+    int size = 1;
+    for (int i = 0; i < size; i++) {
+      int v = queue[i];
+      for (Direction d : Direction.values()) {
+        if (maze.hasEdgePointingIn(v, d) && distance[maze.getNeighborIn(v, d)] < 0) {
+          distance[maze.getNeighborIn(v, d)] = distance[v] + 1;
+          queue[size++] = maze.getNeighborIn(v, d);
+        }
+      }
+    }
+    return distance;
+  }
+
+  /**
+   * Determines whether two cells are joined by an edge.
+   *
+   * @param maze the maze
+   * @param u the first cell
+   * @param v the second cell
+   * @return true if the cells are joined, false if not
+   */
+  static boolean joined(Graph maze, int u, int v) {
+    for (Direction d : Direction.values()) {
+      if (maze.hasEdgePointingIn(u, d) && maze.getNeighborIn(u, d) == v) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,90 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Writes mazes to files, both whole and streamed a row at a time, and checks that they read back
+ * unchanged.
+ */
+class MazeFileTest {
+
+  // A width that is not a multiple of 4, so packed bytes carry over between rows
+  private static final int HEIGHT = 37;
+  private static final int WIDTH = 53;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void streamedEllerMazeReadsBack() throws IOException {
+    Path file = dir.resolve("eller.maze");
+    byte[] expected = new byte[HEIGHT * WIDTH];
+    EllerMazeGenerator generator = new EllerMazeGenerator().height(HEIGHT).width(WIDTH)
+        .bias(0.3).seed(42);
+    try (MazeFile.RowWriter rows = MazeFile.writeRows(file, HEIGHT, WIDTH, 0.3, 42)) {
+      generator.generate((row, cells) -> {
+        System.arraycopy(cells, 0, expected, row * WIDTH, WIDTH);
+        rows.acceptRow(row, cells);
+      });
+    }
+    assertEquals(32 + (HEIGHT * WIDTH + 3) / 4, Files.size(file));
+
+    MazeFile mapped = MazeFile.open(file);
+    assertEquals(HEIGHT, mapped.getHeight());
+    assertEquals(WIDTH, mapped.getWidth());
+    assertEquals(0.3, mapped.getBias());
+    assertEquals(42, mapped.getSeed());
+
+    Graph maze = mapped.load();
+    byte[] masks = new byte[HEIGHT * WIDTH];
+    for (int v = 0; v < masks.length; v++) {
+      masks[v] = (byte) maze.getEdgeMask(v);
+      for (Direction d : new Direction[] {Direction.UP, Direction.RIGHT, Direction.DOWN,
+          Direction.LEFT}) {
+        assertEquals((expected[v] & (1 << d.ordinal())) != 0, mapped.hasEdgePointingIn(v, d));
+      }
+    }
+    assertArrayEquals(expected, masks);
+    MazeStats.of(maze, false);
+  }
+
+  @Test
+  void writtenGraphReadsBack() throws IOException {
+    Graph maze = Graph.rectMazeBuilder().height(HEIGHT).width(WIDTH).bias(0.7).seed(7)
+        .buildInstant();
+    Path file = dir.resolve("graph.maze");
+    MazeFile.write(maze, file);
+
+    assertSameMaze(maze, MazeFile.open(file).load());
+    assertSameMaze(maze, MazeFile.of(MazeFile.toBytes(maze)).load());
+    assertArrayEquals(Files.readAllBytes(file), MazeFile.toBytes(maze));
+  }
+
+  @Test
+  void missingRowsAreReported() throws IOException {
+    MazeFile.RowWriter rows = MazeFile.writeRows(dir.resolve("short.maze"), 2, 3, 0.5, 0);
+    rows.acceptRow(0, new byte[3]);
+    assertThrows(IllegalArgumentException.class, () -> rows.acceptRow(0, new byte[3]));
+    assertThrows(IllegalArgumentException.class, () -> rows.acceptRow(1, new byte[2]));
+    assertThrows(IOException.class, rows::close);
+  }
+
+  private static void assertSameMaze(Graph expected, Graph actual) {
+    assertEquals(expected.getHeight(), actual.getHeight());
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getBias(), actual.getBias());
+    assertEquals(expected.getSeed(), actual.getSeed());
+    for (int v = 0; v < expected.numVertices(); v++) {
+      assertEquals(expected.getEdgeMask(v), actual.getEdgeMask(v));
+    }
+  }
+}
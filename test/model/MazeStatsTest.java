@@ -0,0 +1,57 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Works out the statistics of random mazes by brute force, searching from every cell, and checks
+ * them against those found by two breadth first searches.
+ */
+class MazeStatsTest {
+
+  @Test
+  void statisticsMatchBruteForce() {
+    int[][] sizes = {{1, 1}, {1, 19}, {19, 1}, {2, 2}, {14, 23}, {31, 8}};
+    for (int[] size : sizes) {
+      for (double bias : new double[] {0, 0.5, 1}) {
+        Graph maze = MazeChecks.maze(size[0], size[1], bias, size[0] * 31L + size[1]);
+        String what = size[0] + " x " + size[1] + ", bias " + bias;
+        int n = maze.numVertices();
+
+        int diameter = 0;
+        for (int v = 0; v < n; v++) {
+          for (int distance : MazeChecks.distances(maze, v)) {
+            diameter = Math.max(diameter, distance);
+          }
+        }
+        int deadEnds = 0;
+        for (int v = 0; v < n; v++) {
+          if (Integer.bitCount(maze.getEdgeMask(v)) == 1) {
+            deadEnds++;
+          }
+        }
+
+        MazeStats corners = MazeStats.of(maze, false);
+        assertEquals(0, corners.getStart(), what);
+        assertEquals(n - 1, corners.getTarget(), what);
+        assertEquals(MazeChecks.distances(maze, 0)[n - 1], corners.getSolutionLength(), what);
+        assertEquals(diameter, corners.getDiameter(), what);
+        assertEquals(deadEnds, corners.getDeadEnds(), what);
+
+        MazeStats ends = corners.withPlacement(true);
+        assertEquals(diameter, ends.getSolutionLength(), what);
+        assertEquals(diameter, MazeChecks.distances(maze, ends.getStart())[ends.getTarget()],
+            what);
+        assertEquals(ends.getStart(), MazeStats.of(maze, true).getStart(), what);
+        assertEquals(ends.getTarget(), MazeStats.of(maze, true).getTarget(), what);
+      }
+    }
+  }
+
+  @Test
+  void disconnectedMazeIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> MazeStats.of(new Graph(3, 3, 0.5), true));
+  }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+import structures.IntQueue;
+import structures.IntStack;
+
+/**
+ * Runs every search between random cells of random mazes and checks that each reconstructs an
+ * unbroken path as short as a plain breadth first search finds. A maze has exactly one path
+ * between two cells, so any search that finds a path finds the shortest. Every search but depth
+ * first search still does once walls are knocked through to make loops.
+ */
+class SearchTest {
+
+  private static final int[][] SIZES = {{1, 30}, {30, 1}, {2, 2}, {23, 41}, {60, 60}};
+
+  @Test
+  void breadthFirstFindsShortestPath() {
+    assertShortestPaths("bfs", (m, ends) -> new WorklistSearchUtil(m, new IntQueue(), ends[0],
+        ends[1]), false);
+  }
+
+  @Test
+  void depthFirstFindsShortestPath() {
+    assertShortestPaths("dfs", (m, ends) -> new WorklistSearchUtil(m, new IntStack(), ends[0],
+        ends[1]), false);
+  }
+
+  @Test
+  void aStarFindsShortestPath() {
+    assertShortestPaths("A*", (m, ends) -> new AStarSearchUtil(m, ends[0], ends[1]), false);
+  }
+
+  @Test
+  void bidirectionalFindsShortestPath() {
+    assertShortestPaths("bidirectional", (m, ends) -> new BidirectionalSearchUtil(m, ends[0],
+        ends[1]), false);
+  }
+
+  @Test
+  void breadthFirstFindsShortestPathWithLoops() {
+    assertShortestPaths("bfs", (m, ends) -> new WorklistSearchUtil(m, new IntQueue(), ends[0],
+        ends[1]), true);
+  }
+
+  @Test
+  void aStarFindsShortestPathWithLoops() {
+    assertShortestPaths("A*", (m, ends) -> new AStarSearchUtil(m, ends[0], ends[1]), true);
+  }
+
+  @Test
+  void bidirectionalFindsShortestPathWithLoops() {
+    assertShortestPaths("bidirectional", (m, ends) -> new BidirectionalSearchUtil(m, ends[0],
+        ends[1]), true);
+  }
+
+  private static void assertShortestPaths(String name,
+      BiFunction<Graph, int[], SearchUtil> search, boolean loops) {
+    Random random = new Random(5);
+    for (int[] size : SIZES) {
+      Graph maze = MazeChecks.maze(size[0], size[1], 0.5, size[0] * 31L + size[1]);
+      if (loops) {
+        knockThrough(maze, random, maze.numVertices() / 10);
+      }
+      for (int i = 0; i < 20; i++) {
+        int origin = random.nextInt(maze.numVertices());
+        int target = random.nextInt(maze.numVertices());
+        if (origin == target) {
+          continue;
+        }
+        String what = name + ", " + size[0] + " x " + size[1] + ", " + origin + " to " + target;
+        SearchUtil s = search.apply(maze, new int[] {origin, target});
+        s.instantSearch();
+
+        // the reconstruction runs from the target back to the cell after the origin
+        int previous = Graph.NO_VERTEX;
+        int length = 0;
+        while (s.hasNextReconstruction()) {
+          int v = s.incrementReconstruction();
+          if (previous == Graph.NO_VERTEX) {
+            assertEquals(target, v, what);
+          } else {
+            assertTrue(MazeChecks.joined(maze, previous, v), what + ": path broken at " + v);
+          }
+          previous = v;
+          length++;
+        }
+        assertTrue(MazeChecks.joined(maze, previous, origin), what + ": path misses origin");
+        assertEquals(MazeChecks.distances(maze, origin)[target], length, what);
+      }
+    }
+  }
+
+  /**
+   * Knocks through random walls between cells, making loops.
+   */
+  private static void knockThrough(Graph maze, Random random, int walls) {
+    Direction[] directions = {Direction.RIGHT, Direction.DOWN};
+    for (int i = 0; i < walls; i++) {
+      int v = random.nextInt(maze.numVertices());
+      Direction d = directions[random.nextInt(2)];
+      if (maze.adjacentIn(v, d) != Graph.NO_VERTEX && !maze.hasEdgePointingIn(v, d)) {
+        maze.addEdge(v, d);
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Generates mazes in strips on pools of several sizes and checks that they have exactly the edges
+ * Kruskal's algorithm gives them on one thread.
+ */
+class StripKruskalTest {
+
+  private static final int[] WORKERS = {2, 3, 4, 7};
+
+  private static ForkJoinPool[] pools;
+
+  @BeforeAll
+  static void startPools() {
+    pools = new ForkJoinPool[WORKERS.length];
+    for (int i = 0; i < WORKERS.length; i++) {
+      pools[i] = new ForkJoinPool(WORKERS[i]);
+    }
+  }
+
+  @AfterAll
+  static void stopPools() {
+    for (ForkJoinPool pool : pools) {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void stripsMatchKruskal() {
+    // strips of a single row, more strips than rows, and a single column
+    int[][] sizes = {{3, 3}, {5, 40}, {2, 17}, {40, 1}, {61, 47}, {200, 300}};
+    for (int[] size : sizes) {
+      for (double bias : new double[] {0, 0.3, 1}) {
+        for (ForkJoinPool pool : pools) {
+          assertSameTree(size[0], size[1], bias, pool);
+        }
+      }
+    }
+  }
+
+  private static void assertSameTree(int height, int width, double bias, ForkJoinPool pool) {
+    long seed = height * 31L + width;
+    int[] expected = new Graph(height, width, bias).createMinimumSpanningTree(seed, null);
+    int[] actual = StripKruskalUtil.createMinimumSpanningTree(new Graph(height, width, bias),
+        seed, pool, null);
+    Arrays.sort(expected);
+    Arrays.sort(actual);
+    assertArrayEquals(expected, actual, height + " x " + width + ", bias " + bias + ", "
+        + pool.getParallelism() + " workers");
+  }
+}
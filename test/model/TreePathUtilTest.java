@@ -0,0 +1,71 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Answers distance and path queries on random mazes and checks them against breadth first
+ * searches, between every pair of cells of small mazes and random pairs of a large one.
+ */
+class TreePathUtilTest {
+
+  @Test
+  void everyPairMatchesBreadthFirstSearch() {
+    int[][] sizes = {{1, 1}, {1, 17}, {17, 1}, {2, 3}, {9, 13}};
+    for (int[] size : sizes) {
+      Graph maze = MazeChecks.maze(size[0], size[1], 0.5, size[0] * 31L + size[1]);
+      TreePathUtil paths = new TreePathUtil(maze);
+      for (int u = 0; u < maze.numVertices(); u++) {
+        int[] distance = MazeChecks.distances(maze, u);
+        for (int v = 0; v < maze.numVertices(); v++) {
+          assertPath(maze, paths, u, v, distance[v]);
+        }
+      }
+    }
+  }
+
+  @Test
+  void randomPairsMatchBreadthFirstSearch() {
+    Random random = new Random(18);
+    for (double bias : new double[] {0, 0.5, 1}) {
+      Graph maze = MazeChecks.maze(150, 210, bias, 18);
+      TreePathUtil paths = new TreePathUtil(maze);
+      for (int i = 0; i < 20; i++) {
+        int u = random.nextInt(maze.numVertices());
+        int[] distance = MazeChecks.distances(maze, u);
+        for (int j = 0; j < 20; j++) {
+          int v = random.nextInt(maze.numVertices());
+          assertPath(maze, paths, u, v, distance[v]);
+        }
+      }
+    }
+  }
+
+  private static void assertPath(Graph maze, TreePathUtil paths, int u, int v, int expected) {
+    String what = maze.getHeight() + " x " + maze.getWidth() + ", " + u + " to " + v;
+    assertEquals(expected, paths.distance(u, v), what);
+
+    int ancestor = paths.lowestCommonAncestor(u, v);
+    assertEquals(expected, paths.distance(u, ancestor) + paths.distance(ancestor, v), what);
+
+    PrimitiveIterator.OfInt path = paths.path(u, v);
+    int previous = path.nextInt();
+    assertEquals(u, previous, what);
+    int length = 0;
+    while (path.hasNext()) {
+      int next = path.nextInt();
+      assertTrue(MazeChecks.joined(maze, previous, next), what + ": path broken at " + next);
+      previous = next;
+      length++;
+    }
+    assertFalse(path.hasNext());
+    assertEquals(v, previous, what);
+    assertEquals(expected, length, what);
+  }
+}
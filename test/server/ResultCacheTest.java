@@ -0,0 +1,137 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the result cache evicts the least recently used results, keeps count of the bytes it
+ * holds, computes each missing result once however many threads ask for it, and caches neither
+ * failures nor results too large for it.
+ */
+class ResultCacheTest {
+
+  private final AtomicInteger computed = new AtomicInteger();
+
+  private Supplier<byte[]> bytes(int length) {
+    return () -> {
+      computed.incrementAndGet();
+      return new byte[length];
+    };
+  }
+
+  @Test
+  void leastRecentlyUsedIsEvicted() {
+    ResultCache<String> cache = new ResultCache<>(30);
+    cache.get("a", bytes(10));
+    cache.get("b", bytes(10));
+    cache.get("c", bytes(10));
+    cache.get("a", bytes(10));
+    cache.get("d", bytes(10));
+    assertEquals(4, computed.get());
+    assertEquals(1, cache.getEvictions());
+    assertEquals(3, cache.getEntries());
+    assertEquals(30, cache.getSize());
+
+    // b was used least recently, so only it has to be computed again
+    cache.get("a", bytes(10));
+    cache.get("c", bytes(10));
+    cache.get("d", bytes(10));
+    assertEquals(4, computed.get());
+    cache.get("b", bytes(10));
+    assertEquals(5, computed.get());
+  }
+
+  @Test
+  void replacingAResultCountsOnlyTheNewOne() {
+    ResultCache<String> cache = new ResultCache<>(30);
+    cache.put("a", new byte[10]);
+    cache.put("b", new byte[10]);
+    cache.put("a", new byte[15]);
+    assertEquals(25, cache.getSize());
+    assertEquals(2, cache.getEntries());
+    cache.put("a", new byte[5]);
+    assertEquals(15, cache.getSize());
+    assertEquals(0, cache.getEvictions());
+
+    // growing a past the capacity evicts b, not a itself
+    cache.put("a", new byte[25]);
+    assertEquals(25, cache.getSize());
+    assertEquals(1, cache.getEntries());
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  void oversizedResultsAreNotCached() {
+    ResultCache<String> cache = new ResultCache<>(10);
+    assertEquals(11, cache.get("big", bytes(11)).length);
+    assertEquals(11, cache.get("big", bytes(11)).length);
+    assertEquals(2, computed.get());
+    assertEquals(0, cache.getEntries());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void failuresAreNotCached() {
+    ResultCache<String> cache = new ResultCache<>(100);
+    IllegalArgumentException thrown = new IllegalArgumentException("Bad query.");
+    assertSame(thrown, assertThrows(IllegalArgumentException.class,
+        () -> cache.get("a", () -> {
+          computed.incrementAndGet();
+          throw thrown;
+        })));
+    assertEquals(10, cache.get("a", bytes(10)).length);
+    assertEquals(2, computed.get());
+    assertEquals(1, cache.getEntries());
+  }
+
+  @Test
+  void concurrentCallersComputeOnce() throws Exception {
+    int callers = 8;
+    ResultCache<String> cache = new ResultCache<>(100);
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<byte[]> slow = () -> {
+      computed.incrementAndGet();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return new byte[10];
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<byte[]>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(() -> cache.get("a", slow)));
+      }
+      // every caller has missed once all of them are computing or waiting
+      while (cache.getMisses() < callers) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      byte[] first = results.get(0).get();
+      for (Future<byte[]> result : results) {
+        assertSame(first, result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, computed.get());
+    assertEquals(1, cache.getEntries());
+    assertSame(cache.get("a", bytes(10)), cache.get("a", bytes(10)));
+    assertEquals(1, computed.get());
+  }
+}